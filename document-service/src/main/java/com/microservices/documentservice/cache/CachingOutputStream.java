@@ -0,0 +1,52 @@
+package com.microservices.documentservice.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Forwards everything to the target stream and keeps a copy for the cache.
+ * The copy is dropped as soon as it grows past the per-entry limit, so large
+ * documents are still streamed but never buffered.
+ */
+public class CachingOutputStream extends FilterOutputStream {
+
+    private final int maxCapturedBytes;
+    private ByteArrayOutputStream captured = new ByteArrayOutputStream();
+
+    CachingOutputStream(OutputStream out, int maxCapturedBytes) {
+        super(out);
+        this.maxCapturedBytes = maxCapturedBytes;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        capture(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        capture(b, off, len);
+    }
+
+    private void capture(byte[] b, int off, int len) {
+        if (captured == null) {
+            return;
+        }
+        if (captured.size() + len > maxCapturedBytes) {
+            captured = null;
+            return;
+        }
+        captured.write(b, off, len);
+    }
+
+    /**
+     * @return the bytes written so far, or {@code null} if the document was too large to cache
+     */
+    byte[] getCapturedBytes() {
+        return captured != null ? captured.toByteArray() : null;
+    }
+}
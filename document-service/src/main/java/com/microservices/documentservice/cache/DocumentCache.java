@@ -0,0 +1,142 @@
+package com.microservices.documentservice.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Cache of rendered documents keyed by a hash of the template, document type
+ * and request data. Entries are weighed by their size in bytes and evicted by
+ * Caffeine's W-TinyLFU policy once the configured budget is exceeded.
+ */
+@Component
+@Slf4j
+public class DocumentCache {
+
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    private final boolean enabled;
+    private final boolean offHeap;
+    private final int maxEntryBytes;
+    private final ObjectMapper canonicalMapper;
+    private final Cache<String, ByteBuffer> cache;
+
+    public DocumentCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${document.cache.enabled:true}") boolean enabled,
+            @Value("${document.cache.max-size:64MB}") DataSize maxSize,
+            @Value("${document.cache.max-entry-size:8MB}") DataSize maxEntrySize,
+            @Value("${document.cache.ttl:10m}") Duration ttl,
+            @Value("${document.cache.off-heap:false}") boolean offHeap) {
+        this.enabled = enabled;
+        this.offHeap = offHeap;
+        this.maxEntryBytes = (int) Math.min(maxEntrySize.toBytes(), Integer.MAX_VALUE);
+        this.canonicalMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, ByteBuffer value) -> value.capacity())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "documents");
+        log.info("Document cache enabled: {}, budget: {}, off-heap: {}", enabled, maxSize, offHeap);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Builds the content address of a generation request. Map keys are sorted so
+     * that logically identical payloads hash to the same key.
+     */
+    public String key(String templateType, String documentType, Map<String, Object> data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(templateType.toUpperCase().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(documentType.toUpperCase().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(canonicalMapper.writeValueAsBytes(data));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new RuntimeException("Failed to compute document cache key", e);
+        }
+    }
+
+    /**
+     * Writes the cached document for the given key to the stream.
+     *
+     * @return {@code false} on a cache miss, in which case nothing was written
+     */
+    public boolean writeTo(String key, OutputStream out) {
+        if (!enabled) {
+            return false;
+        }
+
+        ByteBuffer cached = cache.getIfPresent(key);
+        if (cached == null) {
+            return false;
+        }
+
+        ByteBuffer content = cached.duplicate();
+        try {
+            if (content.hasArray()) {
+                out.write(content.array(), content.arrayOffset(), content.remaining());
+            } else {
+                byte[] chunk = new byte[Math.min(COPY_BUFFER_SIZE, content.remaining())];
+                while (content.hasRemaining()) {
+                    int length = Math.min(chunk.length, content.remaining());
+                    content.get(chunk, 0, length);
+                    out.write(chunk, 0, length);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write cached document", e);
+        }
+        return true;
+    }
+
+    public CachingOutputStream capture(OutputStream out) {
+        return new CachingOutputStream(out, enabled ? maxEntryBytes : 0);
+    }
+
+    public void put(String key, CachingOutputStream captured) {
+        if (!enabled) {
+            return;
+        }
+
+        byte[] bytes = captured.getCapturedBytes();
+        if (bytes == null) {
+            log.debug("Document exceeds the cache entry limit, not caching key {}", key);
+            return;
+        }
+
+        ByteBuffer content;
+        if (offHeap) {
+            content = ByteBuffer.allocateDirect(bytes.length);
+            content.put(bytes).flip();
+        } else {
+            content = ByteBuffer.wrap(bytes);
+        }
+        cache.put(key, content);
+    }
+}
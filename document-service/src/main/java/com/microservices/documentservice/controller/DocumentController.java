@@ -1,9 +1,22 @@
 package com.microservices.documentservice.controller;
 
+import com.microservices.documentservice.input.RowSource;
+import com.microservices.documentservice.input.RowSources;
+import com.microservices.documentservice.model.DocumentJob;
+import com.microservices.documentservice.model.DocumentJobRequest;
+import com.microservices.documentservice.model.DocumentJobStatus;
 import com.microservices.documentservice.model.DocumentMetadata;
+import com.microservices.documentservice.model.DocumentPage;
+import com.microservices.documentservice.service.BatchInvoiceService;
+import com.microservices.documentservice.service.DocumentJobService;
 import com.microservices.documentservice.service.DocumentService;
+import com.microservices.documentservice.storage.DocumentStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -11,9 +24,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/documents")
@@ -21,13 +39,30 @@ import java.util.Map;
 @Slf4j
 public class DocumentController {
 
+    private static final MediaType EXCEL_MEDIA_TYPE =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
     private final DocumentService documentService;
+    private final DocumentJobService documentJobService;
+    private final BatchInvoiceService batchInvoiceService;
+    private final DocumentStorageService documentStorageService;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('user', 'admin')")
-    public ResponseEntity<List<DocumentMetadata>> getAllDocuments() {
-        log.info("GET /api/documents - Fetching all documents");
-        return ResponseEntity.ok(documentService.getAllDocuments());
+    public ResponseEntity<DocumentPage> getDocuments(@RequestParam(required = false) String templateType,
+            @RequestParam(required = false) String documentType,
+            @RequestParam(required = false) String generatedBy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "false") boolean includeMetadata) {
+        log.info("GET /api/documents - Fetching documents page");
+        try {
+            return ResponseEntity.ok(documentService.getDocuments(templateType, documentType, generatedBy, cursor,
+                    limit, includeMetadata));
+        } catch (RuntimeException e) {
+            log.error("Error fetching documents: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -39,90 +74,228 @@ public class DocumentController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/content")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<Resource> downloadDocument(@PathVariable String id) {
+        log.info("GET /api/documents/{}/content - Downloading document content", id);
+        return documentService.getDocumentById(id)
+                .map(this::contentResponse)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/generate/pdf/invoice")
     @PreAuthorize("hasAnyRole('user', 'admin')")
-    public ResponseEntity<byte[]> generateInvoicePdf(@RequestBody Map<String, Object> data,
+    public ResponseEntity<StreamingResponseBody> generateInvoicePdf(@RequestBody Map<String, Object> data,
             Authentication authentication) {
         log.info("POST /api/documents/generate/pdf/invoice - Generating invoice PDF");
+        return streamDocument("INVOICE", "PDF", data, authentication, MediaType.APPLICATION_PDF,
+                "invoice_" + System.currentTimeMillis() + ".pdf");
+    }
+
+    @PostMapping("/generate/pdf/invoice/batch")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<StreamingResponseBody> generateInvoicePdfBatch(
+            @RequestBody List<Map<String, Object>> invoices, Authentication authentication) {
+        log.info("POST /api/documents/generate/pdf/invoice/batch - Generating {} invoice PDFs",
+                invoices != null ? invoices.size() : 0);
 
         try {
-            String username = authentication.getName();
-            byte[] pdfBytes = documentService.generateDocument("INVOICE", "PDF", data, username);
+            batchInvoiceService.validateBatch(invoices);
+        } catch (RuntimeException e) {
+            log.error("Error generating invoice batch: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "invoice_" + System.currentTimeMillis() + ".pdf");
+        String username = authentication.getName();
+        StreamingResponseBody body = out -> batchInvoiceService.generateInvoiceBatch(invoices, username, out);
 
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
-        } catch (Exception e) {
-            log.error("Error generating invoice PDF: {}", e.getMessage(), e);
-            return ResponseEntity.internalServerError().build();
-        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment", "invoices_" + System.currentTimeMillis() + ".zip");
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     @PostMapping("/generate/pdf/report")
     @PreAuthorize("hasAnyRole('user', 'admin')")
-    public ResponseEntity<byte[]> generateReportPdf(@RequestBody Map<String, Object> data,
+    public ResponseEntity<StreamingResponseBody> generateReportPdf(@RequestBody Map<String, Object> data,
             Authentication authentication) {
         log.info("POST /api/documents/generate/pdf/report - Generating report PDF");
+        return streamDocument("REPORT", "PDF", data, authentication, MediaType.APPLICATION_PDF,
+                "report_" + System.currentTimeMillis() + ".pdf");
+    }
+
+    @PostMapping("/generate/excel/orders")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<StreamingResponseBody> generateOrderReportExcel(@RequestBody Map<String, Object> data,
+            Authentication authentication) {
+        log.info("POST /api/documents/generate/excel/orders - Generating order report Excel");
+        return streamDocument("ORDER_REPORT", "EXCEL", data, authentication, EXCEL_MEDIA_TYPE,
+                "order_report_" + System.currentTimeMillis() + ".xlsx");
+    }
+
+    @PostMapping("/generate/excel/users")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<StreamingResponseBody> generateUserReportExcel(@RequestBody Map<String, Object> data,
+            Authentication authentication) {
+        log.info("POST /api/documents/generate/excel/users - Generating user report Excel");
+        return streamDocument("USER_REPORT", "EXCEL", data, authentication, EXCEL_MEDIA_TYPE,
+                "user_report_" + System.currentTimeMillis() + ".xlsx");
+    }
+
+    @PostMapping(value = "/generate/pdf/invoice/rows", consumes = {
+            MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE, RowSources.TEXT_CSV_VALUE })
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<StreamingResponseBody> generateInvoicePdfFromRows(@RequestParam Map<String, String> params,
+            HttpServletRequest request, Authentication authentication) {
+        log.info("POST /api/documents/generate/pdf/invoice/rows - Generating invoice PDF from uploaded rows");
+        return streamDocumentFromRows("INVOICE", "PDF", params, request, authentication, MediaType.APPLICATION_PDF,
+                "invoice_" + System.currentTimeMillis() + ".pdf");
+    }
+
+    @PostMapping(value = "/generate/excel/orders/rows", consumes = {
+            MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE, RowSources.TEXT_CSV_VALUE })
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<StreamingResponseBody> generateOrderReportExcelFromRows(
+            @RequestParam Map<String, String> params, HttpServletRequest request, Authentication authentication) {
+        log.info("POST /api/documents/generate/excel/orders/rows - Generating order report Excel from uploaded rows");
+        return streamDocumentFromRows("ORDER_REPORT", "EXCEL", params, request, authentication, EXCEL_MEDIA_TYPE,
+                "order_report_" + System.currentTimeMillis() + ".xlsx");
+    }
 
+    @PostMapping(value = "/generate/excel/users/rows", consumes = {
+            MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE, RowSources.TEXT_CSV_VALUE })
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<StreamingResponseBody> generateUserReportExcelFromRows(
+            @RequestParam Map<String, String> params, HttpServletRequest request, Authentication authentication) {
+        log.info("POST /api/documents/generate/excel/users/rows - Generating user report Excel from uploaded rows");
+        return streamDocumentFromRows("USER_REPORT", "EXCEL", params, request, authentication, EXCEL_MEDIA_TYPE,
+                "user_report_" + System.currentTimeMillis() + ".xlsx");
+    }
+
+    /**
+     * Like {@link #streamDocument}, but the table rows are the request body and
+     * are parsed while the document is being written. The remaining template
+     * fields are taken from query parameters. The format and first row are
+     * checked up front; a malformed row further down can only abort the
+     * already committed response.
+     */
+    private ResponseEntity<StreamingResponseBody> streamDocumentFromRows(String templateType, String documentType,
+            Map<String, String> params, HttpServletRequest request, Authentication authentication,
+            MediaType mediaType, String filename) {
+        RowSource rows;
         try {
-            String username = authentication.getName();
-            byte[] pdfBytes = documentService.generateDocument("REPORT", "PDF", data, username);
+            documentService.validateTemplate(templateType, documentType);
+            rows = documentService.openRows(templateType, request.getInputStream(), request.getContentType());
+        } catch (IOException | RuntimeException e) {
+            log.error("Error generating {} {}: {}", templateType, documentType, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        Map<String, Object> data = new HashMap<>(params);
+        String username = authentication.getName();
+        StreamingResponseBody body = out -> documentService.generateDocument(templateType, documentType, data,
+                rows, username, out);
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "report_" + System.currentTimeMillis() + ".pdf");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(mediaType);
+        headers.setContentDispositionFormData("attachment", filename);
 
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
-        } catch (Exception e) {
-            log.error("Error generating report PDF: {}", e.getMessage(), e);
-            return ResponseEntity.internalServerError().build();
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Renders the document directly into the servlet output stream. Validation
+     * happens up front because the status line is committed with the first byte.
+     */
+    private ResponseEntity<StreamingResponseBody> streamDocument(String templateType, String documentType,
+            Map<String, Object> data, Authentication authentication, MediaType mediaType, String filename) {
+        try {
+            documentService.validateTemplate(templateType, documentType);
+        } catch (RuntimeException e) {
+            log.error("Error generating {} {}: {}", templateType, documentType, e.getMessage());
+            return ResponseEntity.badRequest().build();
         }
+
+        String username = authentication.getName();
+        StreamingResponseBody body = out -> documentService.generateDocument(templateType, documentType, data,
+                username, out);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(mediaType);
+        headers.setContentDispositionFormData("attachment", filename);
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
-    @PostMapping("/generate/excel/orders")
+    @PostMapping("/jobs")
     @PreAuthorize("hasAnyRole('user', 'admin')")
-    public ResponseEntity<byte[]> generateOrderReportExcel(@RequestBody Map<String, Object> data,
+    public ResponseEntity<DocumentJobStatus> submitJob(@Valid @RequestBody DocumentJobRequest request,
             Authentication authentication) {
-        log.info("POST /api/documents/generate/excel/orders - Generating order report Excel");
-
+        log.info("POST /api/documents/jobs - Submitting document job");
         try {
-            String username = authentication.getName();
-            byte[] excelBytes = documentService.generateDocument("ORDER_REPORT", "EXCEL", data, username);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(
-                    MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            headers.setContentDispositionFormData("attachment", "order_report_" + System.currentTimeMillis() + ".xlsx");
-
-            return new ResponseEntity<>(excelBytes, headers, HttpStatus.OK);
-        } catch (Exception e) {
-            log.error("Error generating order Excel: {}", e.getMessage(), e);
-            return ResponseEntity.internalServerError().build();
+            DocumentJob job = documentJobService.submit(request, authentication.getName(), isAdmin(authentication));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(DocumentJobStatus.from(job));
+        } catch (RejectedExecutionException e) {
+            log.warn("Rejecting document job: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (RuntimeException e) {
+            log.error("Error submitting document job: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         }
     }
 
-    @PostMapping("/generate/excel/users")
+    @GetMapping("/jobs/{id}")
     @PreAuthorize("hasAnyRole('user', 'admin')")
-    public ResponseEntity<byte[]> generateUserReportExcel(@RequestBody Map<String, Object> data,
-            Authentication authentication) {
-        log.info("POST /api/documents/generate/excel/users - Generating user report Excel");
+    public ResponseEntity<DocumentJobStatus> getJob(@PathVariable String id, Authentication authentication) {
+        log.info("GET /api/documents/jobs/{} - Fetching document job", id);
+        return documentJobService.getJob(id, authentication.getName(), isAdmin(authentication))
+                .map(job -> ResponseEntity.ok(DocumentJobStatus.from(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
 
-        try {
-            String username = authentication.getName();
-            byte[] excelBytes = documentService.generateDocument("USER_REPORT", "EXCEL", data, username);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(
-                    MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            headers.setContentDispositionFormData("attachment", "user_report_" + System.currentTimeMillis() + ".xlsx");
-
-            return new ResponseEntity<>(excelBytes, headers, HttpStatus.OK);
-        } catch (Exception e) {
-            log.error("Error generating user Excel: {}", e.getMessage(), e);
-            return ResponseEntity.internalServerError().build();
+    @GetMapping("/jobs/{id}/download")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<Resource> downloadJobResult(@PathVariable String id, Authentication authentication) {
+        log.info("GET /api/documents/jobs/{}/download - Downloading document job result", id);
+        DocumentJob job = documentJobService.getJob(id, authentication.getName(), isAdmin(authentication))
+                .orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!DocumentJobService.STATUS_COMPLETED.equals(job.getStatus()) || job.getDocumentId() == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
+
+        return documentService.getDocumentById(job.getDocumentId())
+                .map(this::contentResponse)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_admin".equals(authority.getAuthority()));
+    }
+
+    /**
+     * Serves the stored content of a generated document. Range requests are
+     * answered with 206 and only the requested chunks are read from GridFS;
+     * the content hash doubles as a strong ETag for If-None-Match.
+     */
+    private ResponseEntity<Resource> contentResponse(DocumentMetadata metadata) {
+        if (metadata.getContentId() == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(metadata.getContentType()));
+        headers.setContentDispositionFormData("attachment",
+                metadata.getDocumentName() + DocumentStorageService.fileExtension(metadata.getDocumentType()));
+        headers.setETag("\"" + metadata.getContentHash() + "\"");
+        headers.setCacheControl(CacheControl.maxAge(Duration.ofDays(30)).cachePrivate());
+
+        return new ResponseEntity<>(documentStorageService.getContent(metadata.getContentId()), headers,
+                HttpStatus.OK);
     }
 
     @DeleteMapping("/{id}")
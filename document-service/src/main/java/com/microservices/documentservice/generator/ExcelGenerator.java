@@ -1,11 +1,15 @@
 package com.microservices.documentservice.generator;
 
+import com.microservices.documentservice.input.RowSource;
+import com.microservices.documentservice.input.RowSources;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
@@ -14,14 +18,37 @@ import java.util.Map;
 @Slf4j
 public class ExcelGenerator {
 
-    public byte[] generateOrderReportExcel(Map<String, Object> data) {
+    public static final String[] ORDER_COLUMNS = {
+            "orderNumber", "customer", "items", "totalAmount", "status", "date" };
+    public static final String[] USER_COLUMNS = {
+            "username", "email", "firstName", "lastName", "status", "createdDate" };
+
+    // Excel caps column width at 255 characters (width is expressed in 1/256 of a character)
+    private static final int MAX_COLUMN_WIDTH = 255 * 256;
+    private static final int COLUMN_PADDING = 2;
+
+    // Number of rows kept in memory; older rows are flushed to a temp file
+    @Value("${document.excel.row-access-window:100}")
+    private int rowAccessWindowSize;
+
+    public void generateOrderReportExcel(Map<String, Object> data, OutputStream out) {
+        generateOrderReportExcel(data,
+                RowSources.fromData(data, "orders", ORDER_COLUMNS, "ORD-001|John Doe|3|500.00|CONFIRMED|2024-01-20"),
+                out);
+    }
+
+    public void generateOrderReportExcel(Map<String, Object> data, RowSource orders, OutputStream out) {
         log.info("Generating order report Excel");
 
-        try (Workbook workbook = new XSSFWorkbook();
-                ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+        SXSSFWorkbook workbook = createWorkbook();
+        try (workbook) {
 
             Sheet sheet = workbook.createSheet("Order Report");
 
+            // Headers
+            String[] headers = { "Order Number", "Customer", "Items", "Total Amount", "Status", "Date" };
+            int[] columnWidths = new int[headers.length];
+
             // Create header style
             CellStyle headerStyle = workbook.createCellStyle();
             Font headerFont = workbook.createFont();
@@ -33,76 +60,67 @@ public class ExcelGenerator {
 
             // Title row
             Row titleRow = sheet.createRow(0);
-            Cell titleCell = titleRow.createCell(0);
-            titleCell.setCellValue("ORDER REPORT");
-            titleCell.setCellStyle(headerStyle);
+            writeCell(titleRow, 0, "ORDER REPORT", columnWidths).setCellStyle(headerStyle);
 
             // Date row
             Row dateRow = sheet.createRow(1);
-            dateRow.createCell(0).setCellValue("Generated:");
-            dateRow.createCell(1)
-                    .setCellValue(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+            writeCell(dateRow, 0, "Generated:", columnWidths);
+            writeCell(dateRow, 1, LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
+                    columnWidths);
 
             // Empty row
             sheet.createRow(2);
 
-            // Headers
             Row headerRow = sheet.createRow(3);
-            String[] headers = { "Order Number", "Customer", "Items", "Total Amount", "Status", "Date" };
             for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
+                writeCell(headerRow, i, headers[i], columnWidths).setCellStyle(headerStyle);
             }
 
-            // Sample data rows (in real scenario, this would come from data)
-            int rowNum = 4;
-            String ordersData = (String) data.getOrDefault("orders", "ORD-001|John Doe|3|500.00|CONFIRMED|2024-01-20");
-            for (String orderLine : ordersData.split(";")) {
-                Row row = sheet.createRow(rowNum++);
-                String[] orderParts = orderLine.split("\\|");
-                for (int i = 0; i < orderParts.length; i++) {
-                    row.createCell(i).setCellValue(orderParts[i]);
-                }
-            }
+            int rowNum = writeRows(sheet, 4, orders, columnWidths);
 
             // Summary section
             rowNum++;
             Row summaryTitleRow = sheet.createRow(rowNum++);
-            Cell summaryCell = summaryTitleRow.createCell(0);
-            summaryCell.setCellValue("SUMMARY");
-            summaryCell.setCellStyle(headerStyle);
+            writeCell(summaryTitleRow, 0, "SUMMARY", columnWidths).setCellStyle(headerStyle);
 
             Row totalOrdersRow = sheet.createRow(rowNum++);
-            totalOrdersRow.createCell(0).setCellValue("Total Orders:");
-            totalOrdersRow.createCell(1).setCellValue(data.getOrDefault("totalOrders", "0").toString());
+            writeCell(totalOrdersRow, 0, "Total Orders:", columnWidths);
+            writeCell(totalOrdersRow, 1, data.getOrDefault("totalOrders", "0").toString(), columnWidths);
 
             Row totalRevenueRow = sheet.createRow(rowNum++);
-            totalRevenueRow.createCell(0).setCellValue("Total Revenue:");
-            totalRevenueRow.createCell(1).setCellValue("$" + data.getOrDefault("totalRevenue", "0.00"));
+            writeCell(totalRevenueRow, 0, "Total Revenue:", columnWidths);
+            writeCell(totalRevenueRow, 1, "$" + data.getOrDefault("totalRevenue", "0.00"), columnWidths);
 
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
+            applyColumnWidths(sheet, columnWidths);
 
-            workbook.write(baos);
-            return baos.toByteArray();
+            workbook.write(out);
 
         } catch (Exception e) {
             log.error("Error generating Excel: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to generate Excel", e);
+        } finally {
+            workbook.dispose();
         }
     }
 
-    public byte[] generateUserReportExcel(Map<String, Object> data) {
+    public void generateUserReportExcel(Map<String, Object> data, OutputStream out) {
+        generateUserReportExcel(data,
+                RowSources.fromData(data, "users", USER_COLUMNS, "john.doe|john@example.com|John|Doe|Active|2024-01-15"),
+                out);
+    }
+
+    public void generateUserReportExcel(Map<String, Object> data, RowSource users, OutputStream out) {
         log.info("Generating user report Excel");
 
-        try (Workbook workbook = new XSSFWorkbook();
-                ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+        SXSSFWorkbook workbook = createWorkbook();
+        try (workbook) {
 
             Sheet sheet = workbook.createSheet("User Report");
 
+            // Headers
+            String[] headers = { "Username", "Email", "First Name", "Last Name", "Status", "Created Date" };
+            int[] columnWidths = new int[headers.length];
+
             // Create header style
             CellStyle headerStyle = workbook.createCellStyle();
             Font headerFont = workbook.createFont();
@@ -114,66 +132,87 @@ public class ExcelGenerator {
 
             // Title row
             Row titleRow = sheet.createRow(0);
-            Cell titleCell = titleRow.createCell(0);
-            titleCell.setCellValue("USER REPORT");
-            titleCell.setCellStyle(headerStyle);
+            writeCell(titleRow, 0, "USER REPORT", columnWidths).setCellStyle(headerStyle);
 
             // Date row
             Row dateRow = sheet.createRow(1);
-            dateRow.createCell(0).setCellValue("Generated:");
-            dateRow.createCell(1)
-                    .setCellValue(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+            writeCell(dateRow, 0, "Generated:", columnWidths);
+            writeCell(dateRow, 1, LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
+                    columnWidths);
 
             // Empty row
             sheet.createRow(2);
 
-            // Headers
             Row headerRow = sheet.createRow(3);
-            String[] headers = { "Username", "Email", "First Name", "Last Name", "Status", "Created Date" };
             for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
+                writeCell(headerRow, i, headers[i], columnWidths).setCellStyle(headerStyle);
             }
 
-            // Sample data rows
-            int rowNum = 4;
-            String usersData = (String) data.getOrDefault("users",
-                    "john.doe|john@example.com|John|Doe|Active|2024-01-15");
-            for (String userLine : usersData.split(";")) {
-                Row row = sheet.createRow(rowNum++);
-                String[] userParts = userLine.split("\\|");
-                for (int i = 0; i < userParts.length; i++) {
-                    row.createCell(i).setCellValue(userParts[i]);
-                }
-            }
+            int rowNum = writeRows(sheet, 4, users, columnWidths);
 
             // Summary
             rowNum++;
             Row summaryRow = sheet.createRow(rowNum++);
-            Cell summaryCell = summaryRow.createCell(0);
-            summaryCell.setCellValue("SUMMARY");
-            summaryCell.setCellStyle(headerStyle);
+            writeCell(summaryRow, 0, "SUMMARY", columnWidths).setCellStyle(headerStyle);
 
             Row totalUsersRow = sheet.createRow(rowNum++);
-            totalUsersRow.createCell(0).setCellValue("Total Users:");
-            totalUsersRow.createCell(1).setCellValue(data.getOrDefault("totalUsers", "0").toString());
+            writeCell(totalUsersRow, 0, "Total Users:", columnWidths);
+            writeCell(totalUsersRow, 1, data.getOrDefault("totalUsers", "0").toString(), columnWidths);
 
             Row activeUsersRow = sheet.createRow(rowNum++);
-            activeUsersRow.createCell(0).setCellValue("Active Users:");
-            activeUsersRow.createCell(1).setCellValue(data.getOrDefault("activeUsers", "0").toString());
+            writeCell(activeUsersRow, 0, "Active Users:", columnWidths);
+            writeCell(activeUsersRow, 1, data.getOrDefault("activeUsers", "0").toString(), columnWidths);
 
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
+            applyColumnWidths(sheet, columnWidths);
 
-            workbook.write(baos);
-            return baos.toByteArray();
+            workbook.write(out);
 
         } catch (Exception e) {
             log.error("Error generating user Excel: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to generate user Excel", e);
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    private SXSSFWorkbook createWorkbook() {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowAccessWindowSize);
+        workbook.setCompressTempFiles(true);
+        return workbook;
+    }
+
+    /**
+     * Writes rows as they are read from the source.
+     *
+     * @return the index of the first row after the written rows
+     */
+    private int writeRows(Sheet sheet, int rowNum, RowSource rows, int[] columnWidths) throws IOException {
+        String[] values;
+        while ((values = rows.nextRow()) != null) {
+            Row row = sheet.createRow(rowNum++);
+            for (int i = 0; i < values.length; i++) {
+                writeCell(row, i, values[i], columnWidths);
+            }
+        }
+        return rowNum;
+    }
+
+    /**
+     * Writes a string cell and records its length, so column widths can be set
+     * without re-reading rows that were already flushed to disk.
+     */
+    private Cell writeCell(Row row, int column, String value, int[] columnWidths) {
+        Cell cell = row.createCell(column);
+        cell.setCellValue(value);
+        if (column < columnWidths.length && value.length() > columnWidths[column]) {
+            columnWidths[column] = value.length();
+        }
+        return cell;
+    }
+
+    private void applyColumnWidths(Sheet sheet, int[] columnWidths) {
+        for (int i = 0; i < columnWidths.length; i++) {
+            sheet.setColumnWidth(i, Math.min((columnWidths[i] + COLUMN_PADDING) * 256, MAX_COLUMN_WIDTH));
         }
     }
 }
@@ -5,56 +5,74 @@ import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
-import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
+import com.microservices.documentservice.input.RowSource;
+import com.microservices.documentservice.input.RowSources;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Map;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class PdfGenerator {
 
-    public byte[] generateInvoicePdf(Map<String, Object> data) {
+    public static final String[] INVOICE_ITEM_COLUMNS = { "productName", "quantity", "price", "subtotal" };
+
+    // Completed table rows are laid out and released every this many rows
+    private static final int TABLE_FLUSH_ROWS = 100;
+
+    private final PdfTemplateResources resources;
+
+    public void generateInvoicePdf(Map<String, Object> data, OutputStream out) {
+        generateInvoicePdf(data,
+                RowSources.fromData(data, "items", INVOICE_ITEM_COLUMNS, "Product A|2|100.00|200.00"), out);
+    }
+
+    public void generateInvoicePdf(Map<String, Object> data, RowSource items, OutputStream out) {
         log.info("Generating invoice PDF");
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            // The caller owns the target stream (e.g. the servlet response)
+            writer.setCloseStream(false);
             PdfDocument pdfDoc = new PdfDocument(writer);
             Document document = new Document(pdfDoc);
+            PdfTemplateResources.Fonts fonts = resources.newFonts();
+            document.setFont(fonts.regular());
 
             // Title
             Paragraph title = new Paragraph("INVOICE")
-                    .setFontSize(24)
-                    .setBold()
-                    .setTextAlignment(TextAlignment.CENTER);
+                    .addStyle(resources.getTitleStyle())
+                    .setFont(fonts.bold());
             document.add(title);
 
             document.add(new Paragraph("\n"));
 
             // Invoice details
             String invoiceNumber = (String) data.getOrDefault("invoiceNumber", "INV-001");
-            String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            String date = LocalDateTime.now().format(resources.getDateFormat());
 
-            document.add(new Paragraph("Invoice Number: " + invoiceNumber).setBold());
+            document.add(new Paragraph("Invoice Number: " + invoiceNumber).setFont(fonts.bold()));
             document.add(new Paragraph("Date: " + date));
             document.add(new Paragraph("\n"));
 
             // Customer details
-            document.add(new Paragraph("Customer Information").setBold().setFontSize(14));
+            document.add(heading("Customer Information", fonts));
             document.add(new Paragraph("Name: " + data.getOrDefault("customerName", "N/A")));
             document.add(new Paragraph("Email: " + data.getOrDefault("customerEmail", "N/A")));
             document.add(new Paragraph("Address: " + data.getOrDefault("customerAddress", "N/A")));
             document.add(new Paragraph("\n"));
 
             // Items table
-            document.add(new Paragraph("Items").setBold().setFontSize(14));
+            document.add(heading("Items", fonts));
 
-            Table table = new Table(UnitValue.createPercentArray(new float[] { 3, 1, 2, 2 }));
+            // Large table mode, so item rows are written out as they arrive
+            Table table = new Table(UnitValue.createPercentArray(resources.getInvoiceColumnWidths()), true);
             table.setWidth(UnitValue.createPercentValue(100));
 
             // Table headers
@@ -62,84 +80,92 @@ public class PdfGenerator {
             table.addHeaderCell("Quantity");
             table.addHeaderCell("Price");
             table.addHeaderCell("Subtotal");
+            document.add(table);
 
-            // Sample items (in real scenario, this would come from data)
-            String items = (String) data.getOrDefault("items", "Product A|2|100.00|200.00");
-            for (String item : items.split(";")) {
-                String[] parts = item.split("\\|");
-                for (String part : parts) {
-                    table.addCell(part);
+            String[] item;
+            int rowCount = 0;
+            while ((item = items.nextRow()) != null) {
+                for (String cell : item) {
+                    table.addCell(cell);
+                }
+                if (++rowCount % TABLE_FLUSH_ROWS == 0) {
+                    table.flush();
                 }
             }
-
-            document.add(table);
+            table.complete();
             document.add(new Paragraph("\n"));
 
             // Total
             Paragraph total = new Paragraph("Total Amount: $" + data.getOrDefault("totalAmount", "0.00"))
-                    .setBold()
-                    .setFontSize(16)
-                    .setTextAlignment(TextAlignment.RIGHT);
+                    .addStyle(resources.getTotalStyle())
+                    .setFont(fonts.bold());
             document.add(total);
 
             document.add(new Paragraph("\n\n"));
             document.add(new Paragraph("Thank you for your business!")
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setItalic());
+                    .addStyle(resources.getFooterStyle())
+                    .setFont(fonts.italic()));
 
             document.close();
 
-            return baos.toByteArray();
-
         } catch (Exception e) {
             log.error("Error generating PDF: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to generate PDF", e);
         }
     }
 
-    public byte[] generateReportPdf(Map<String, Object> data) {
+    public void generateReportPdf(Map<String, Object> data, OutputStream out) {
         log.info("Generating report PDF");
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            // The caller owns the target stream (e.g. the servlet response)
+            writer.setCloseStream(false);
             PdfDocument pdfDoc = new PdfDocument(writer);
             Document document = new Document(pdfDoc);
+            PdfTemplateResources.Fonts fonts = resources.newFonts();
+            document.setFont(fonts.regular());
 
             // Title
             Paragraph title = new Paragraph("BUSINESS REPORT")
-                    .setFontSize(24)
-                    .setBold()
-                    .setTextAlignment(TextAlignment.CENTER);
+                    .addStyle(resources.getTitleStyle())
+                    .setFont(fonts.bold());
             document.add(title);
 
             document.add(new Paragraph("\n"));
 
             // Report details
             String reportTitle = (String) data.getOrDefault("reportTitle", "Monthly Report");
-            String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+            String date = LocalDateTime.now().format(resources.getDateFormat());
 
-            document.add(new Paragraph("Report: " + reportTitle).setBold().setFontSize(16));
+            document.add(new Paragraph("Report: " + reportTitle)
+                    .addStyle(resources.getSubtitleStyle())
+                    .setFont(fonts.bold()));
             document.add(new Paragraph("Generated: " + date));
             document.add(new Paragraph("\n"));
 
             // Summary
-            document.add(new Paragraph("Summary").setBold().setFontSize(14));
+            document.add(heading("Summary", fonts));
             document.add(new Paragraph((String) data.getOrDefault("summary", "This is a sample report summary.")));
             document.add(new Paragraph("\n"));
 
             // Statistics
-            document.add(new Paragraph("Statistics").setBold().setFontSize(14));
+            document.add(heading("Statistics", fonts));
             document.add(new Paragraph("Total Orders: " + data.getOrDefault("totalOrders", "0")));
             document.add(new Paragraph("Total Revenue: $" + data.getOrDefault("totalRevenue", "0.00")));
             document.add(new Paragraph("Active Users: " + data.getOrDefault("activeUsers", "0")));
 
             document.close();
 
-            return baos.toByteArray();
-
         } catch (Exception e) {
             log.error("Error generating report PDF: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to generate report PDF", e);
         }
     }
+
+    private Paragraph heading(String text, PdfTemplateResources.Fonts fonts) {
+        return new Paragraph(text)
+                .addStyle(resources.getHeadingStyle())
+                .setFont(fonts.bold());
+    }
 }
@@ -0,0 +1,63 @@
+package com.microservices.documentservice.generator;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.properties.TextAlignment;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Parts of the PDF templates that do not depend on request data, built once at
+ * startup: parsed font programs, paragraph styles and the date format.
+ * PdfFont instances belong to a single PdfDocument, so only the font programs
+ * are shared and {@link #newFonts()} wraps them for each new document.
+ */
+@Component
+@Getter
+@Slf4j
+public class PdfTemplateResources {
+
+    private final DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Style titleStyle = new Style().setFontSize(24).setTextAlignment(TextAlignment.CENTER);
+    private final Style subtitleStyle = new Style().setFontSize(16);
+    private final Style headingStyle = new Style().setFontSize(14);
+    private final Style totalStyle = new Style().setFontSize(16).setTextAlignment(TextAlignment.RIGHT);
+    private final Style footerStyle = new Style().setTextAlignment(TextAlignment.CENTER);
+
+    private final float[] invoiceColumnWidths = { 3, 1, 2, 2 };
+
+    private final FontProgram regularFontProgram;
+    private final FontProgram boldFontProgram;
+    private final FontProgram italicFontProgram;
+
+    public PdfTemplateResources() {
+        try {
+            this.regularFontProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+            this.boldFontProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+            this.italicFontProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA_OBLIQUE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load PDF font programs", e);
+        }
+        log.info("PDF template resources initialized");
+    }
+
+    public Fonts newFonts() {
+        return new Fonts(
+                PdfFontFactory.createFont(regularFontProgram, PdfEncodings.WINANSI),
+                PdfFontFactory.createFont(boldFontProgram, PdfEncodings.WINANSI),
+                PdfFontFactory.createFont(italicFontProgram, PdfEncodings.WINANSI));
+    }
+
+    public record Fonts(PdfFont regular, PdfFont bold, PdfFont italic) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.microservices.documentservice.input;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV with a header row, read line by line. Header names are matched to the
+ * template's columns case-insensitively; columns missing from the file are
+ * left empty. Quoted fields may contain commas and doubled quotes, but not
+ * line breaks.
+ */
+class CsvRowSource implements RowSource {
+
+    private final BufferedReader reader;
+    private final int[] columnPositions;
+
+    CsvRowSource(InputStream input, String[] columns) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        String headerLine = reader.readLine();
+        List<String> header = headerLine != null ? parseLine(headerLine) : List.of();
+        this.columnPositions = new int[columns.length];
+        boolean matched = false;
+        for (int i = 0; i < columns.length; i++) {
+            columnPositions[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (header.get(j).trim().equalsIgnoreCase(columns[i])) {
+                    columnPositions[i] = j;
+                    matched = true;
+                    break;
+                }
+            }
+        }
+        if (!matched && headerLine != null) {
+            throw new RuntimeException("CSV header has none of the columns " + String.join(", ", columns));
+        }
+    }
+
+    @Override
+    public String[] nextRow() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        List<String> values = parseLine(line);
+        String[] cells = new String[columnPositions.length];
+        for (int i = 0; i < cells.length; i++) {
+            int position = columnPositions[i];
+            cells[i] = position >= 0 && position < values.size() ? values.get(position) : "";
+        }
+        return cells;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static List<String> parseLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
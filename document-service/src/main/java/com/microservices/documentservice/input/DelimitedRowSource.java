@@ -0,0 +1,48 @@
+package com.microservices.documentservice.input;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The legacy {@code "a|b|c;d|e|f"} format, scanned with indexOf instead of
+ * regex based splitting.
+ */
+class DelimitedRowSource implements RowSource {
+
+    private static final char ROW_SEPARATOR = ';';
+    private static final char CELL_SEPARATOR = '|';
+
+    private final String input;
+    private int position;
+
+    DelimitedRowSource(String input) {
+        this.input = input;
+    }
+
+    @Override
+    public String[] nextRow() {
+        // A trailing row separator does not start another row
+        if (position > input.length() || (position > 0 && position == input.length())) {
+            return null;
+        }
+
+        int rowEnd = input.indexOf(ROW_SEPARATOR, position);
+        if (rowEnd < 0) {
+            rowEnd = input.length();
+        }
+
+        List<String> cells = new ArrayList<>();
+        int cellStart = position;
+        while (cellStart <= rowEnd) {
+            int cellEnd = input.indexOf(CELL_SEPARATOR, cellStart);
+            if (cellEnd < 0 || cellEnd > rowEnd) {
+                cellEnd = rowEnd;
+            }
+            cells.add(input.substring(cellStart, cellEnd));
+            cellStart = cellEnd + 1;
+        }
+
+        position = rowEnd + 1;
+        return cells.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,36 @@
+package com.microservices.documentservice.input;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Newline delimited JSON objects, or a top-level JSON array of objects, read
+ * one object at a time with Jackson's streaming parser.
+ */
+class JsonRowSource implements RowSource {
+
+    private final MappingIterator<Map<String, Object>> rows;
+    private final String[] columns;
+
+    JsonRowSource(ObjectReader reader, InputStream input, String[] columns) throws IOException {
+        this.rows = reader.forType(Map.class).readValues(input);
+        this.columns = columns;
+    }
+
+    @Override
+    public String[] nextRow() throws IOException {
+        if (!rows.hasNextValue()) {
+            return null;
+        }
+        return RowSources.cells(rows.nextValue(), columns);
+    }
+
+    @Override
+    public void close() throws IOException {
+        rows.close();
+    }
+}
@@ -0,0 +1,40 @@
+package com.microservices.documentservice.input;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows given as a JSON array inside the request body, either as objects keyed
+ * by column name or as arrays of cell values.
+ */
+class ListRowSource implements RowSource {
+
+    private final Iterator<?> rows;
+    private final String[] columns;
+
+    ListRowSource(List<?> rows, String[] columns) {
+        this.rows = rows.iterator();
+        this.columns = columns;
+    }
+
+    @Override
+    public String[] nextRow() {
+        if (!rows.hasNext()) {
+            return null;
+        }
+
+        Object row = rows.next();
+        if (row instanceof Map<?, ?> values) {
+            return RowSources.cells(values, columns);
+        }
+        if (row instanceof List<?> values) {
+            String[] cells = new String[values.size()];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = values.get(i) != null ? values.get(i).toString() : "";
+            }
+            return cells;
+        }
+        throw new RuntimeException("Unsupported row format: " + row);
+    }
+}
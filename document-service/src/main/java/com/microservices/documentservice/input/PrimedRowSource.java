@@ -0,0 +1,35 @@
+package com.microservices.documentservice.input;
+
+import java.io.IOException;
+
+/**
+ * A row source whose first row has already been read, so that malformed input
+ * is detected before anything is generated.
+ */
+class PrimedRowSource implements RowSource {
+
+    private final RowSource delegate;
+    private String[] first;
+    private boolean firstReturned;
+
+    PrimedRowSource(RowSource delegate) throws IOException {
+        this.delegate = delegate;
+        this.first = delegate.nextRow();
+    }
+
+    @Override
+    public String[] nextRow() throws IOException {
+        if (!firstReturned) {
+            firstReturned = true;
+            String[] row = first;
+            first = null;
+            return row;
+        }
+        return delegate.nextRow();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
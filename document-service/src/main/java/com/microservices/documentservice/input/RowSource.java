@@ -0,0 +1,20 @@
+package com.microservices.documentservice.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Rows fed to a generator one at a time, so the full input never has to be
+ * materialised.
+ */
+public interface RowSource extends Closeable {
+
+    /**
+     * @return the cell values of the next row, or {@code null} when there are no more rows
+     */
+    String[] nextRow() throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
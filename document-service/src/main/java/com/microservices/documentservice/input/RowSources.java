@@ -0,0 +1,86 @@
+package com.microservices.documentservice.input;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates row sources for request data and for streamed uploads.
+ */
+@Component
+@Slf4j
+public class RowSources {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ObjectReader jsonReader;
+
+    public RowSources(ObjectMapper objectMapper) {
+        this.jsonReader = objectMapper.reader();
+    }
+
+    /**
+     * Reads the rows stored under {@code key} in the request data. Accepts a JSON
+     * array of objects or arrays, as well as the legacy delimited string.
+     */
+    public static RowSource fromData(Map<String, Object> data, String key, String[] columns, String defaultValue) {
+        Object value = data.get(key);
+        if (value == null) {
+            return new DelimitedRowSource(defaultValue);
+        }
+        if (value instanceof List<?> rows) {
+            return new ListRowSource(rows, columns);
+        }
+        if (value instanceof String rows) {
+            return new DelimitedRowSource(rows);
+        }
+        throw new RuntimeException("Unsupported format for '" + key + "'");
+    }
+
+    /**
+     * Reads rows incrementally from an uploaded body. NDJSON and JSON arrays of
+     * objects are mapped by column name, CSV by its header row.
+     */
+    public RowSource fromStream(InputStream input, String contentType, String[] columns) throws IOException {
+        MediaType mediaType = contentType != null ? MediaType.parseMediaType(contentType) : MediaType.APPLICATION_NDJSON;
+        if (mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                || mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            return new JsonRowSource(jsonReader, input, columns);
+        }
+        if (mediaType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))) {
+            return new CsvRowSource(input, columns);
+        }
+        throw new RuntimeException("Unsupported row format: " + contentType);
+    }
+
+    /**
+     * Like {@link #fromStream}, but reads the CSV header and the first row right
+     * away, so that a malformed body fails while the request can still be
+     * rejected with an error status. Later rows are still parsed lazily.
+     */
+    public RowSource open(InputStream input, String contentType, String[] columns) throws IOException {
+        RowSource source = fromStream(input, contentType, columns);
+        try {
+            return new PrimedRowSource(source);
+        } catch (IOException | RuntimeException e) {
+            source.close();
+            throw e;
+        }
+    }
+
+    static String[] cells(Map<?, ?> values, String[] columns) {
+        String[] cells = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            Object value = values.get(columns[i]);
+            cells[i] = value != null ? value.toString() : "";
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,44 @@
+package com.microservices.documentservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "document_jobs")
+public class DocumentJob {
+
+    @Id
+    private String id;
+
+    private String templateType;
+
+    private String documentType; // PDF, EXCEL
+
+    private int priority; // higher runs first
+
+    @Indexed
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED
+
+    private Map<String, Object> data;
+
+    private String requestedBy;
+
+    private String documentId; // DocumentMetadata of the generated result
+
+    private String error;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,24 @@
+package com.microservices.documentservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotBlank;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentJobRequest {
+
+    @NotBlank(message = "Template type is required")
+    private String templateType;
+
+    @NotBlank(message = "Document type is required")
+    private String documentType;
+
+    private int priority;
+
+    private Map<String, Object> data;
+}
@@ -0,0 +1,44 @@
+package com.microservices.documentservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A document job as returned to clients, without the request payload.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentJobStatus {
+
+    private String id;
+
+    private String templateType;
+
+    private String documentType;
+
+    private int priority;
+
+    private String status;
+
+    private String requestedBy;
+
+    private String documentId;
+
+    private String error;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
+    public static DocumentJobStatus from(DocumentJob job) {
+        return new DocumentJobStatus(job.getId(), job.getTemplateType(), job.getDocumentType(), job.getPriority(),
+                job.getStatus(), job.getRequestedBy(), job.getDocumentId(), job.getError(), job.getCreatedAt(),
+                job.getStartedAt(), job.getCompletedAt());
+    }
+}
@@ -4,6 +4,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.NotBlank;
@@ -14,6 +17,12 @@ import java.util.Map;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "documents")
+@CompoundIndexes({
+        @CompoundIndex(name = "created_idx", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "template_created_idx", def = "{'templateType': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "type_created_idx", def = "{'documentType': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "generated_by_created_idx", def = "{'generatedBy': 1, 'createdAt': -1, '_id': -1}")
+})
 public class DocumentMetadata {
 
     @Id
@@ -32,5 +41,14 @@ public class DocumentMetadata {
 
     private Map<String, Object> metadata;
 
+    @Indexed(sparse = true)
+    private String contentId; // GridFS file holding the rendered document
+
+    private String contentHash; // SHA-256 of the content, shared by identical documents
+
+    private Long contentLength;
+
+    private String contentType;
+
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,17 @@
+package com.microservices.documentservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentPage {
+
+    private List<DocumentMetadata> items;
+
+    private String nextCursor; // null on the last page
+}
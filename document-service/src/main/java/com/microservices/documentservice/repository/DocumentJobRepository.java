@@ -0,0 +1,13 @@
+package com.microservices.documentservice.repository;
+
+import com.microservices.documentservice.model.DocumentJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DocumentJobRepository extends MongoRepository<DocumentJob, String> {
+    List<DocumentJob> findByStatusInOrderByCreatedAtAsc(Collection<String> statuses);
+}
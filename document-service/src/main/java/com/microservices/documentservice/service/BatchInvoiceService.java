@@ -0,0 +1,195 @@
+package com.microservices.documentservice.service;
+
+import com.microservices.documentservice.generator.PdfGenerator;
+import com.microservices.documentservice.model.DocumentMetadata;
+import com.microservices.documentservice.storage.DocumentStorageService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders many invoices in parallel and streams them into a single ZIP archive
+ * as they complete. Only a bounded window of rendered invoices is held in
+ * memory at any time.
+ */
+@Service
+@Slf4j
+public class BatchInvoiceService {
+
+    private final PdfGenerator pdfGenerator;
+    private final DocumentMetadataWriter documentMetadataWriter;
+    private final DocumentService documentService;
+    private final DocumentStorageService documentStorageService;
+    private final ExecutorService renderExecutor;
+    private final int maxInFlight;
+    private final int maxBatchSize;
+
+    public BatchInvoiceService(PdfGenerator pdfGenerator, DocumentMetadataWriter documentMetadataWriter,
+            DocumentService documentService, DocumentStorageService documentStorageService,
+            @Value("${document.batch.max-size:5000}") int maxBatchSize) {
+        this.pdfGenerator = pdfGenerator;
+        this.documentMetadataWriter = documentMetadataWriter;
+        this.documentService = documentService;
+        this.documentStorageService = documentStorageService;
+        this.maxBatchSize = maxBatchSize;
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        this.renderExecutor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("invoice-batch-"));
+        this.maxInFlight = threads * 2;
+    }
+
+    public void validateBatch(List<Map<String, Object>> invoices) {
+        if (invoices == null || invoices.isEmpty()) {
+            throw new RuntimeException("Invoice batch is empty");
+        }
+        if (invoices.size() > maxBatchSize) {
+            throw new RuntimeException("Invoice batch exceeds the maximum of " + maxBatchSize + " invoices");
+        }
+        // Checked here because a failing render only surfaces after the ZIP response is committed
+        for (int i = 0; i < invoices.size(); i++) {
+            if (invoices.get(i) == null || invoices.get(i).isEmpty()) {
+                throw new RuntimeException("Invoice " + (i + 1) + " of the batch is empty");
+            }
+        }
+    }
+
+    public void generateInvoiceBatch(List<Map<String, Object>> invoices, String generatedBy, OutputStream out) {
+        log.info("Generating invoice batch of {} invoices", invoices.size());
+
+        validateBatch(invoices);
+
+        CompletionService<RenderedInvoice> completionService = new ExecutorCompletionService<>(renderExecutor);
+        List<Future<RenderedInvoice>> pending = new ArrayList<>();
+        List<DocumentMetadata> metadata = new ArrayList<>(invoices.size());
+        StoredContent stored = new StoredContent();
+
+        // The response stream is owned by the caller; closing the ZIP only releases its deflater
+        try (ZipOutputStream zip = new ZipOutputStream(StreamUtils.nonClosing(out))) {
+            zip.setLevel(Deflater.BEST_SPEED); // PDF content streams are already compressed
+
+            int submitted = 0;
+            while (submitted < invoices.size() && submitted < maxInFlight) {
+                pending.add(submit(completionService, invoices, submitted++, generatedBy, stored));
+            }
+
+            for (int written = 0; written < invoices.size(); written++) {
+                Future<RenderedInvoice> completed = completionService.take();
+                pending.remove(completed);
+                RenderedInvoice invoice = completed.get();
+                if (submitted < invoices.size()) {
+                    pending.add(submit(completionService, invoices, submitted++, generatedBy, stored));
+                }
+
+                zip.putNextEntry(new ZipEntry(invoice.entryName()));
+                zip.write(invoice.content());
+                zip.closeEntry();
+                zip.flush();
+
+                metadata.add(invoice.metadata());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(pending, stored);
+            throw new RuntimeException("Invoice batch was interrupted", e);
+        } catch (ExecutionException | IOException e) {
+            abort(pending, stored);
+            log.error("Error generating invoice batch: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to generate invoice batch", e);
+        } catch (RuntimeException e) {
+            abort(pending, stored);
+            throw e;
+        }
+
+        // One insertMany for the whole batch instead of a save per invoice
+        documentMetadataWriter.writeAll(metadata);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderExecutor.shutdownNow();
+    }
+
+    /**
+     * Stops the remaining renders and drops the content references the batch
+     * took, since no metadata will be written for them.
+     */
+    private static void abort(List<Future<RenderedInvoice>> pending, StoredContent stored) {
+        pending.forEach(future -> future.cancel(true));
+        stored.releaseAll();
+    }
+
+    private Future<RenderedInvoice> submit(CompletionService<RenderedInvoice> completionService,
+            List<Map<String, Object>> invoices, int index, String generatedBy, StoredContent stored) {
+        Map<String, Object> data = invoices.get(index);
+        return completionService.submit(() -> {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            pdfGenerator.generateInvoicePdf(data, baos);
+            byte[] content = baos.toByteArray();
+
+            DocumentMetadata metadata = documentService.createMetadata("INVOICE", "PDF", data, generatedBy);
+            documentStorageService.store(content, metadata);
+            stored.add(metadata.getContentId());
+            return new RenderedInvoice(entryName(index, data), content, metadata);
+        });
+    }
+
+    private static String entryName(int index, Map<String, Object> data) {
+        String invoiceNumber = String.valueOf(data.getOrDefault("invoiceNumber", "invoice"));
+        return String.format("%05d_%s.pdf", index + 1, invoiceNumber.replaceAll("[^A-Za-z0-9._-]", "_"));
+    }
+
+    /**
+     * Content ids the batch has taken a reference to. Once released, content
+     * stored by renders still running (e.g. ignoring cancellation) is released
+     * as soon as they add it.
+     */
+    private final class StoredContent {
+
+        private final List<String> contentIds = new ArrayList<>();
+        private boolean released;
+
+        synchronized void add(String contentId) {
+            if (released) {
+                release(contentId);
+            } else {
+                contentIds.add(contentId);
+            }
+        }
+
+        synchronized void releaseAll() {
+            released = true;
+            contentIds.forEach(this::release);
+            contentIds.clear();
+        }
+
+        private void release(String contentId) {
+            try {
+                documentStorageService.release(contentId);
+            } catch (RuntimeException e) {
+                log.warn("Could not release document content {}: {}", contentId, e.getMessage());
+            }
+        }
+    }
+
+    private record RenderedInvoice(String entryName, byte[] content, DocumentMetadata metadata) {
+    }
+}
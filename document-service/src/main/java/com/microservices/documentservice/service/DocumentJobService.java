@@ -0,0 +1,179 @@
+package com.microservices.documentservice.service;
+
+import com.microservices.documentservice.model.DocumentJob;
+import com.microservices.documentservice.model.DocumentJobRequest;
+import com.microservices.documentservice.model.DocumentMetadata;
+import com.microservices.documentservice.repository.DocumentJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs document generation requests in the background on a dedicated worker
+ * pool, so large reports do not tie up request threads. Job state lives in
+ * Mongo and unfinished jobs are re-queued on startup.
+ */
+@Service
+@Slf4j
+public class DocumentJobService {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    // Requested priorities are clamped to these bounds; only admins can go above USER_MAX_PRIORITY
+    public static final int MIN_PRIORITY = 0;
+    public static final int USER_MAX_PRIORITY = 5;
+    public static final int MAX_PRIORITY = 10;
+
+    private final DocumentJobRepository documentJobRepository;
+    private final DocumentService documentService;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public DocumentJobService(DocumentJobRepository documentJobRepository, DocumentService documentService,
+            @Value("${document.jobs.workers:2}") int workers,
+            @Value("${document.jobs.queue-capacity:500}") int queueCapacity) {
+        this.documentJobRepository = documentJobRepository;
+        this.documentService = documentService;
+        this.queueCapacity = queueCapacity;
+        // PriorityBlockingQueue is unbounded, so capacity is enforced in submit()
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), new CustomizableThreadFactory("document-job-"));
+    }
+
+    public DocumentJob submit(DocumentJobRequest request, String requestedBy, boolean admin) {
+        int priority = Math.max(MIN_PRIORITY,
+                Math.min(request.getPriority(), admin ? MAX_PRIORITY : USER_MAX_PRIORITY));
+        log.info("Submitting document job - Template: {}, Type: {}, Priority: {}",
+                request.getTemplateType(), request.getDocumentType(), priority);
+
+        documentService.validateTemplate(request.getTemplateType(), request.getDocumentType());
+
+        if (executor.getQueue().size() >= queueCapacity) {
+            throw new RejectedExecutionException("Document job queue is full");
+        }
+
+        DocumentJob job = new DocumentJob();
+        job.setTemplateType(request.getTemplateType());
+        job.setDocumentType(request.getDocumentType());
+        job.setPriority(priority);
+        job.setStatus(STATUS_QUEUED);
+        job.setData(request.getData() != null ? request.getData() : Map.of());
+        job.setRequestedBy(requestedBy);
+        job.setCreatedAt(LocalDateTime.now());
+
+        DocumentJob savedJob = documentJobRepository.save(job);
+        enqueue(savedJob);
+        return savedJob;
+    }
+
+    /**
+     * Returns the job if it was requested by the caller or the caller is an
+     * admin; other users' jobs are reported as not found.
+     */
+    public Optional<DocumentJob> getJob(String id, String username, boolean admin) {
+        log.info("Fetching document job: {}", id);
+        return documentJobRepository.findById(id)
+                .filter(job -> admin || username.equals(job.getRequestedBy()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingJobs() {
+        List<DocumentJob> pending = documentJobRepository.findByStatusInOrderByCreatedAtAsc(
+                List.of(STATUS_QUEUED, STATUS_RUNNING));
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        log.info("Re-queueing {} unfinished document jobs", pending.size());
+        for (DocumentJob job : pending) {
+            if (STATUS_RUNNING.equals(job.getStatus())) {
+                job.setStatus(STATUS_QUEUED);
+                job.setStartedAt(null);
+                documentJobRepository.save(job);
+            }
+            enqueue(job);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted jobs stay RUNNING in Mongo and are picked up again on the next start
+        executor.shutdownNow();
+    }
+
+    private void enqueue(DocumentJob job) {
+        executor.execute(new PrioritizedJob(job.getId(), job.getPriority(), sequence.getAndIncrement()));
+    }
+
+    private void run(String jobId) {
+        DocumentJob job = documentJobRepository.findById(jobId).orElse(null);
+        if (job == null || !STATUS_QUEUED.equals(job.getStatus())) {
+            return;
+        }
+
+        job.setStatus(STATUS_RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        documentJobRepository.save(job);
+
+        try {
+            // The result is kept in document storage, nothing needs to be streamed here. Its metadata is saved
+            // before the job completes, so the published documentId can be downloaded right away.
+            DocumentMetadata metadata = documentService.generateDocument(job.getTemplateType(),
+                    job.getDocumentType(), job.getData(), job.getRequestedBy(), OutputStream.nullOutputStream(), true);
+
+            job.setStatus(STATUS_COMPLETED);
+            job.setDocumentId(metadata.getId());
+            log.info("Document job {} completed", jobId);
+        } catch (RuntimeException e) {
+            log.error("Document job {} failed: {}", jobId, e.getMessage(), e);
+            job.setStatus(STATUS_FAILED);
+            job.setError(e.getMessage());
+        }
+
+        job.setCompletedAt(LocalDateTime.now());
+        documentJobRepository.save(job);
+    }
+
+    private class PrioritizedJob implements Runnable, Comparable<PrioritizedJob> {
+
+        private final String jobId;
+        private final int priority;
+        private final long sequence;
+
+        PrioritizedJob(String jobId, int priority, long sequence) {
+            this.jobId = jobId;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            DocumentJobService.this.run(jobId);
+        }
+
+        @Override
+        public int compareTo(PrioritizedJob other) {
+            int byPriority = Integer.compare(other.priority, priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.microservices.documentservice.service;
+
+import com.microservices.documentservice.model.DocumentMetadata;
+import com.microservices.documentservice.repository.DocumentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists document metadata either synchronously or, in write-behind mode,
+ * through a bounded queue that is flushed with insertMany once a batch is full
+ * or the flush interval has passed. When the queue is full, callers wait up to
+ * the offer timeout and then fall back to a synchronous save. Pending records
+ * are flushed on shutdown.
+ */
+@Component
+@Slf4j
+public class DocumentMetadataWriter {
+
+    private final DocumentRepository documentRepository;
+    private final boolean writeBehind;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final BlockingQueue<DocumentMetadata> queue;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public DocumentMetadataWriter(DocumentRepository documentRepository,
+            @Value("${document.metadata.write-behind.enabled:false}") boolean writeBehind,
+            @Value("${document.metadata.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${document.metadata.write-behind.batch-size:500}") int batchSize,
+            @Value("${document.metadata.write-behind.flush-interval:1s}") Duration flushInterval,
+            @Value("${document.metadata.write-behind.offer-timeout:5s}") Duration offerTimeout) {
+        this.documentRepository = documentRepository;
+        this.writeBehind = writeBehind;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+        this.queue = writeBehind ? new ArrayBlockingQueue<>(queueCapacity) : null;
+        this.flusher = writeBehind ? new Thread(this::flushLoop, "document-metadata-flusher") : null;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (writeBehind) {
+            log.info("Document metadata write-behind enabled, batch size: {}, flush interval: {}",
+                    batchSize, flushInterval);
+            flusher.start();
+        }
+    }
+
+    public DocumentMetadata write(DocumentMetadata metadata) {
+        if (!writeBehind) {
+            return documentRepository.save(metadata);
+        }
+
+        // Assign the id up front so callers can reference the record before it is flushed
+        if (metadata.getId() == null) {
+            metadata.setId(new ObjectId().toHexString());
+        }
+
+        try {
+            if (running && queue.offer(metadata, offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                return metadata;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        log.warn("Metadata write-behind queue is full, saving document {} synchronously", metadata.getId());
+        return documentRepository.save(metadata);
+    }
+
+    /**
+     * Saves the record synchronously regardless of write-behind, for callers
+     * that publish its id to someone who may read it right away.
+     */
+    public DocumentMetadata writeNow(DocumentMetadata metadata) {
+        return documentRepository.save(metadata);
+    }
+
+    public List<DocumentMetadata> writeAll(List<DocumentMetadata> metadata) {
+        if (!writeBehind) {
+            return documentRepository.insert(metadata);
+        }
+        metadata.forEach(this::write);
+        return metadata;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!writeBehind) {
+            return;
+        }
+
+        running = false;
+        flusher.join(flushInterval.multipliedBy(2).toMillis());
+
+        // Anything the flusher did not get to is written before the context closes
+        List<DocumentMetadata> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        flush(remaining);
+    }
+
+    private void flushLoop() {
+        List<DocumentMetadata> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    DocumentMetadata next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        flush(batch);
+    }
+
+    private void flush(List<DocumentMetadata> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            documentRepository.insert(batch);
+            log.debug("Flushed {} document metadata records", batch.size());
+        } catch (RuntimeException e) {
+            // Saves are upserts by id, so records already written by the failed batch are not duplicated
+            log.error("Failed to flush {} document metadata records, retrying one by one: {}",
+                    batch.size(), e.getMessage());
+            for (DocumentMetadata metadata : batch) {
+                try {
+                    documentRepository.save(metadata);
+                } catch (RuntimeException saveError) {
+                    log.error("Failed to save document metadata {}: {}", metadata.getId(), saveError.getMessage());
+                }
+            }
+        }
+        batch.clear();
+    }
+}
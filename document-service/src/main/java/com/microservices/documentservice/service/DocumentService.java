@@ -1,30 +1,99 @@
 package com.microservices.documentservice.service;
 
+import com.microservices.documentservice.cache.CachingOutputStream;
+import com.microservices.documentservice.cache.DocumentCache;
 import com.microservices.documentservice.generator.ExcelGenerator;
 import com.microservices.documentservice.generator.PdfGenerator;
+import com.microservices.documentservice.input.RowSource;
+import com.microservices.documentservice.input.RowSources;
 import com.microservices.documentservice.model.DocumentMetadata;
+import com.microservices.documentservice.model.DocumentPage;
 import com.microservices.documentservice.repository.DocumentRepository;
+import com.microservices.documentservice.storage.ContentSink;
+import com.microservices.documentservice.storage.DocumentStorageService;
+import com.microservices.documentservice.storage.TeeOutputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DocumentService {
 
+    private static final Set<String> PDF_TEMPLATES = Set.of("INVOICE", "REPORT");
+    private static final Set<String> EXCEL_TEMPLATES = Set.of("ORDER_REPORT", "USER_REPORT");
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final DocumentRepository documentRepository;
+    private final MongoTemplate mongoTemplate;
     private final PdfGenerator pdfGenerator;
     private final ExcelGenerator excelGenerator;
+    private final DocumentCache documentCache;
+    private final DocumentStorageService documentStorageService;
+    private final DocumentMetadataWriter documentMetadataWriter;
+    private final RowSources rowSources;
+
+    /**
+     * Returns one page of documents, newest first. Paging is keyset based on
+     * (createdAt, _id), so every page is an index range scan regardless of depth.
+     * The request payload in {@code metadata} is left out unless asked for.
+     */
+    public DocumentPage getDocuments(String templateType, String documentType, String generatedBy, String cursor,
+            int limit, boolean includeMetadata) {
+        log.info("Fetching documents - Template: {}, Type: {}, GeneratedBy: {}", templateType, documentType,
+                generatedBy);
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Query query = new Query();
+
+        if (templateType != null) {
+            query.addCriteria(Criteria.where("templateType").is(templateType));
+        }
+        if (documentType != null) {
+            query.addCriteria(Criteria.where("documentType").is(documentType));
+        }
+        if (generatedBy != null) {
+            query.addCriteria(Criteria.where("generatedBy").is(generatedBy));
+        }
+        if (cursor != null) {
+            DocumentCursor position = DocumentCursor.decode(cursor);
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(position.createdAt()),
+                    new Criteria().andOperator(
+                            Criteria.where("createdAt").is(position.createdAt()),
+                            Criteria.where("_id").lt(new ObjectId(position.id())))));
+        }
+        if (!includeMetadata) {
+            query.fields().exclude("metadata");
+        }
+
+        query.with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"));
+        query.limit(pageSize + 1);
+
+        List<DocumentMetadata> documents = mongoTemplate.find(query, DocumentMetadata.class);
 
-    public List<DocumentMetadata> getAllDocuments() {
-        log.info("Fetching all documents");
-        return documentRepository.findAll();
+        String nextCursor = null;
+        if (documents.size() > pageSize) {
+            documents = documents.subList(0, pageSize);
+            DocumentMetadata last = documents.get(pageSize - 1);
+            nextCursor = new DocumentCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new DocumentPage(documents, nextCursor);
     }
 
     public Optional<DocumentMetadata> getDocumentById(String id) {
@@ -32,21 +101,125 @@ public class DocumentService {
         return documentRepository.findById(id);
     }
 
-    public byte[] generateDocument(String templateType, String documentType, Map<String, Object> data,
-            String generatedBy) {
-        log.info("Generating document - Template: {}, Type: {}", templateType, documentType);
-
-        byte[] documentBytes;
-
+    /**
+     * Rejects unknown template/document type combinations before anything is
+     * written to the response, so the caller can still send an error status.
+     */
+    public void validateTemplate(String templateType, String documentType) {
         if ("PDF".equalsIgnoreCase(documentType)) {
-            documentBytes = generatePdfDocument(templateType, data);
+            if (!PDF_TEMPLATES.contains(templateType.toUpperCase())) {
+                throw new RuntimeException("Unsupported PDF template type: " + templateType);
+            }
         } else if ("EXCEL".equalsIgnoreCase(documentType)) {
-            documentBytes = generateExcelDocument(templateType, data);
+            if (!EXCEL_TEMPLATES.contains(templateType.toUpperCase())) {
+                throw new RuntimeException("Unsupported Excel template type: " + templateType);
+            }
         } else {
             throw new RuntimeException("Unsupported document type: " + documentType);
         }
+    }
+
+    public DocumentMetadata generateDocument(String templateType, String documentType, Map<String, Object> data,
+            String generatedBy, OutputStream out) {
+        return generateDocument(templateType, documentType, data, generatedBy, out, false);
+    }
+
+    /**
+     * @param durable save the metadata synchronously even in write-behind mode,
+     *                so the returned id can be read back immediately
+     */
+    public DocumentMetadata generateDocument(String templateType, String documentType, Map<String, Object> data,
+            String generatedBy, OutputStream out, boolean durable) {
+        log.info("Generating document - Template: {}, Type: {}", templateType, documentType);
+
+        validateTemplate(templateType, documentType);
+
+        DocumentMetadata metadata = createMetadata(templateType, documentType, data, generatedBy);
+
+        // Content is streamed to the caller and spilled to a temp file for storage at the same time
+        try (ContentSink sink = documentStorageService.newSink()) {
+            OutputStream target = new TeeOutputStream(out, sink);
+
+            String cacheKey = documentCache.key(templateType, documentType, data);
+            if (documentCache.writeTo(cacheKey, target)) {
+                log.debug("Served {} {} from cache", templateType, documentType);
+            } else {
+                CachingOutputStream cachingOut = documentCache.capture(target);
+                if ("PDF".equalsIgnoreCase(documentType)) {
+                    generatePdfDocument(templateType, data, cachingOut);
+                } else {
+                    generateExcelDocument(templateType, data, cachingOut);
+                }
+                documentCache.put(cacheKey, cachingOut);
+            }
+
+            documentStorageService.store(sink, metadata);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to release document content buffer", e);
+        }
 
-        // Save metadata
+        // Save metadata only once the document has been fully written
+        return durable ? documentMetadataWriter.writeNow(metadata) : documentMetadataWriter.write(metadata);
+    }
+
+    /**
+     * Returns the columns read from uploaded rows for a template, failing for
+     * templates that have no row section.
+     */
+    public String[] rowColumns(String templateType) {
+        return switch (templateType.toUpperCase()) {
+            case "INVOICE" -> PdfGenerator.INVOICE_ITEM_COLUMNS;
+            case "ORDER_REPORT" -> ExcelGenerator.ORDER_COLUMNS;
+            case "USER_REPORT" -> ExcelGenerator.USER_COLUMNS;
+            default -> throw new RuntimeException("Template does not accept row input: " + templateType);
+        };
+    }
+
+    /**
+     * Opens the uploaded NDJSON, JSON or CSV rows for a template. The header and
+     * first row are read immediately, so malformed input is reported before the
+     * response is committed.
+     */
+    public RowSource openRows(String templateType, InputStream rows, String contentType) {
+        try {
+            return rowSources.open(rows, contentType, rowColumns(templateType));
+        } catch (IOException e) {
+            throw new RuntimeException("Invalid document rows: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Generates a document whose rows are parsed incrementally from an uploaded
+     * body opened with {@link #openRows}. The rows are never held in full, so
+     * these documents bypass the cache; only {@code data} is recorded as metadata.
+     */
+    public DocumentMetadata generateDocument(String templateType, String documentType, Map<String, Object> data,
+            RowSource rows, String generatedBy, OutputStream out) {
+        log.info("Generating document from row stream - Template: {}, Type: {}", templateType, documentType);
+
+        validateTemplate(templateType, documentType);
+
+        DocumentMetadata metadata = createMetadata(templateType, documentType, data, generatedBy);
+
+        try (ContentSink sink = documentStorageService.newSink(); RowSource rowSource = rows) {
+            OutputStream target = new TeeOutputStream(out, sink);
+            switch (templateType.toUpperCase()) {
+                case "INVOICE" -> pdfGenerator.generateInvoicePdf(data, rowSource, target);
+                case "ORDER_REPORT" -> excelGenerator.generateOrderReportExcel(data, rowSource, target);
+                case "USER_REPORT" -> excelGenerator.generateUserReportExcel(data, rowSource, target);
+                default -> throw new RuntimeException("Template does not accept row input: " + templateType);
+            }
+
+            documentStorageService.store(sink, metadata);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read document rows", e);
+        }
+
+        return documentMetadataWriter.write(metadata);
+    }
+
+    DocumentMetadata createMetadata(String templateType, String documentType, Map<String, Object> data,
+            String generatedBy) {
         DocumentMetadata metadata = new DocumentMetadata();
         metadata.setDocumentName(templateType + "_" + System.currentTimeMillis());
         metadata.setDocumentType(documentType);
@@ -54,26 +227,23 @@ public class DocumentService {
         metadata.setGeneratedBy(generatedBy);
         metadata.setMetadata(data);
         metadata.setCreatedAt(LocalDateTime.now());
-
-        documentRepository.save(metadata);
-
-        return documentBytes;
+        return metadata;
     }
 
-    private byte[] generatePdfDocument(String templateType, Map<String, Object> data) {
-        return switch (templateType.toUpperCase()) {
-            case "INVOICE" -> pdfGenerator.generateInvoicePdf(data);
-            case "REPORT" -> pdfGenerator.generateReportPdf(data);
+    private void generatePdfDocument(String templateType, Map<String, Object> data, OutputStream out) {
+        switch (templateType.toUpperCase()) {
+            case "INVOICE" -> pdfGenerator.generateInvoicePdf(data, out);
+            case "REPORT" -> pdfGenerator.generateReportPdf(data, out);
             default -> throw new RuntimeException("Unsupported PDF template type: " + templateType);
-        };
+        }
     }
 
-    private byte[] generateExcelDocument(String templateType, Map<String, Object> data) {
-        return switch (templateType.toUpperCase()) {
-            case "ORDER_REPORT" -> excelGenerator.generateOrderReportExcel(data);
-            case "USER_REPORT" -> excelGenerator.generateUserReportExcel(data);
+    private void generateExcelDocument(String templateType, Map<String, Object> data, OutputStream out) {
+        switch (templateType.toUpperCase()) {
+            case "ORDER_REPORT" -> excelGenerator.generateOrderReportExcel(data, out);
+            case "USER_REPORT" -> excelGenerator.generateUserReportExcel(data, out);
             default -> throw new RuntimeException("Unsupported Excel template type: " + templateType);
-        };
+        }
     }
 
     public void deleteDocument(String id) {
@@ -83,5 +253,10 @@ public class DocumentService {
                 .orElseThrow(() -> new RuntimeException("Document not found with id: " + id));
 
         documentRepository.delete(document);
+
+        // Stored content is shared between identical documents and only deleted with its last reference
+        if (document.getContentId() != null) {
+            documentStorageService.release(document.getContentId());
+        }
     }
 }
@@ -0,0 +1,76 @@
+package com.microservices.documentservice.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Spills generated content to a temp file while hashing it, so the document can
+ * be stored after it has been streamed to the client without keeping it in
+ * memory. Closing the sink deletes the temp file.
+ */
+public class ContentSink extends OutputStream {
+
+    private final Path tempFile;
+    private final OutputStream fileOut;
+    private final MessageDigest digest;
+    private long length;
+    private String hash;
+
+    ContentSink() throws IOException {
+        this.tempFile = Files.createTempFile("document-", ".tmp");
+        this.fileOut = new BufferedOutputStream(Files.newOutputStream(tempFile));
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        fileOut.write(b);
+        digest.update((byte) b);
+        length++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        fileOut.write(b, off, len);
+        digest.update(b, off, len);
+        length += len;
+    }
+
+    /**
+     * Completes the content; after this the hash, length and temp file can be read.
+     */
+    String finish() throws IOException {
+        if (hash == null) {
+            fileOut.close();
+            hash = HexFormat.of().formatHex(digest.digest());
+        }
+        return hash;
+    }
+
+    long getLength() {
+        return length;
+    }
+
+    Path getPath() {
+        return tempFile;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            fileOut.close();
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
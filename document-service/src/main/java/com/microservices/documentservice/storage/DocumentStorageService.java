@@ -0,0 +1,201 @@
+package com.microservices.documentservice.storage;
+
+import com.microservices.documentservice.model.DocumentMetadata;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.data.mongodb.gridfs.GridFsUpload;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Stores rendered documents in GridFS, deduplicated by the SHA-256 of their
+ * content: identical documents share a single GridFS file. Each file carries
+ * the number of metadata records linked to it, changed atomically with $inc;
+ * a file is only deleted once that count drops to zero, and a file at zero
+ * can no longer be linked. The content hash is unique, so concurrent uploads
+ * of the same content resolve to one file.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentStorageService {
+
+    private static final String FILES_COLLECTION = "fs.files";
+    private static final String CHUNKS_COLLECTION = "fs.chunks";
+    private static final String CONTENT_HASH_FIELD = "metadata.contentHash";
+    private static final String REF_COUNT_FIELD = "metadata.refCount";
+    private static final String CONTENT_HASH_INDEX = "content_hash_unique";
+    private static final int MAX_STORE_ATTEMPTS = 5;
+
+    private final GridFsTemplate gridFsTemplate;
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        mongoTemplate.indexOps(FILES_COLLECTION)
+                .ensureIndex(new Index(CONTENT_HASH_FIELD, Sort.Direction.ASC).unique().named(CONTENT_HASH_INDEX));
+    }
+
+    public ContentSink newSink() {
+        try {
+            return new ContentSink();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create document content buffer", e);
+        }
+    }
+
+    /**
+     * Stores the content written to the sink and links it to the metadata.
+     */
+    public void store(ContentSink sink, DocumentMetadata metadata) {
+        String hash;
+        try {
+            hash = sink.finish();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store document content", e);
+        }
+        ObjectId contentId = acquire(hash, metadata, () -> Files.newInputStream(sink.getPath()));
+        link(metadata, contentId, hash, sink.getLength());
+    }
+
+    public void store(byte[] content, DocumentMetadata metadata) {
+        String hash = sha256(content);
+        ObjectId contentId = acquire(hash, metadata, () -> new ByteArrayInputStream(content));
+        link(metadata, contentId, hash, content.length);
+    }
+
+    public Resource getContent(String contentId) {
+        GridFSFile file = gridFsTemplate.findOne(query(where("_id").is(new ObjectId(contentId))));
+        if (file == null) {
+            throw new RuntimeException("Document content not found: " + contentId);
+        }
+        return new GridFsContentResource(gridFsTemplate, file);
+    }
+
+    /**
+     * Drops one reference to the content, deleting it when it was the last.
+     */
+    public void release(String contentId) {
+        ObjectId id = new ObjectId(contentId);
+        Document file = mongoTemplate.findAndModify(query(where("_id").is(id).and(REF_COUNT_FIELD).gt(0)),
+                new Update().inc(REF_COUNT_FIELD, -1), FindAndModifyOptions.options().returnNew(true),
+                Document.class, FILES_COLLECTION);
+        if (file != null && refCount(file) <= 0) {
+            log.info("Deleting document content: {}", contentId);
+            deleteUnreferenced(query(where("_id").is(id)));
+        }
+    }
+
+    public static String contentType(String documentType) {
+        return "PDF".equalsIgnoreCase(documentType)
+                ? "application/pdf"
+                : "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    }
+
+    public static String fileExtension(String documentType) {
+        return "PDF".equalsIgnoreCase(documentType) ? ".pdf" : ".xlsx";
+    }
+
+    /**
+     * Takes a reference to the stored content with this hash, uploading it
+     * first if there is none. A concurrent upload of the same content fails on
+     * the unique hash index, and the upload is then retried as a reference.
+     */
+    private ObjectId acquire(String hash, DocumentMetadata metadata, ContentSupplier content) {
+        for (int attempt = 1; attempt <= MAX_STORE_ATTEMPTS; attempt++) {
+            Document existing = mongoTemplate.findAndModify(
+                    query(where(CONTENT_HASH_FIELD).is(hash).and(REF_COUNT_FIELD).gt(0)),
+                    new Update().inc(REF_COUNT_FIELD, 1), FindAndModifyOptions.options().returnNew(true),
+                    Document.class, FILES_COLLECTION);
+            if (existing != null) {
+                return existing.getObjectId("_id");
+            }
+
+            ObjectId contentId = new ObjectId();
+            try (InputStream in = content.open()) {
+                upload(contentId, in, hash, metadata);
+                return contentId;
+            } catch (DuplicateKeyException | MongoWriteException e) {
+                if (e instanceof MongoWriteException writeError
+                        && writeError.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                    throw writeError;
+                }
+                // GridFS writes the chunks before the file document, so they are left behind
+                mongoTemplate.remove(query(where("files_id").is(contentId)), CHUNKS_COLLECTION);
+                // A file whose last reference is being released blocks the hash until it is deleted
+                deleteUnreferenced(query(where(CONTENT_HASH_FIELD).is(hash)));
+                log.debug("Content with hash {} was stored concurrently, retrying ({})", hash, attempt);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to store document content", e);
+            }
+        }
+        throw new RuntimeException("Failed to store document content after " + MAX_STORE_ATTEMPTS + " attempts");
+    }
+
+    private void upload(ObjectId contentId, InputStream content, String hash, DocumentMetadata metadata) {
+        gridFsTemplate.store(GridFsUpload.fromStream(content)
+                .id(contentId)
+                .filename(metadata.getDocumentName() + fileExtension(metadata.getDocumentType()))
+                .contentType(contentType(metadata.getDocumentType()))
+                .metadata(new Document("contentHash", hash).append("refCount", 1))
+                .build());
+        log.debug("Stored document content {} with hash {}", contentId, hash);
+    }
+
+    // Files at zero references can no longer be acquired, so this cannot race with a new link
+    private void deleteUnreferenced(Query files) {
+        gridFsTemplate.delete(files.addCriteria(where(REF_COUNT_FIELD).lte(0)));
+    }
+
+    private static long refCount(Document file) {
+        Document metadata = file.get("metadata", Document.class);
+        Number count = metadata != null ? metadata.get("refCount", Number.class) : null;
+        return count != null ? count.longValue() : 0;
+    }
+
+    private void link(DocumentMetadata metadata, ObjectId contentId, String hash, long length) {
+        metadata.setContentId(contentId.toHexString());
+        metadata.setContentHash(hash);
+        metadata.setContentLength(length);
+        metadata.setContentType(contentType(metadata.getDocumentType()));
+    }
+
+    @FunctionalInterface
+    private interface ContentSupplier {
+        InputStream open() throws IOException;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
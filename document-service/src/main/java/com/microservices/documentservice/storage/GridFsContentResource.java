@@ -0,0 +1,54 @@
+package com.microservices.documentservice.storage;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A GridFS file that opens a fresh download stream on every read. Spring's
+ * range support reads a resource once per requested range and skips to the
+ * range start, which GridFS serves by jumping to the right chunk.
+ */
+public class GridFsContentResource extends AbstractResource {
+
+    private final GridFsTemplate gridFsTemplate;
+    private final GridFSFile file;
+
+    GridFsContentResource(GridFsTemplate gridFsTemplate, GridFSFile file) {
+        this.gridFsTemplate = gridFsTemplate;
+        this.file = file;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return gridFsTemplate.getResource(file).getInputStream();
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() {
+        return file.getLength();
+    }
+
+    @Override
+    public long lastModified() {
+        return file.getUploadDate().getTime();
+    }
+
+    @Override
+    public String getFilename() {
+        return file.getFilename();
+    }
+
+    @Override
+    public String getDescription() {
+        return "GridFS file [" + file.getObjectId().toHexString() + "]";
+    }
+}
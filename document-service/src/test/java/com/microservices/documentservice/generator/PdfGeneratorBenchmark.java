@@ -0,0 +1,185 @@
+package com.microservices.documentservice.generator;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders invoices and reports with {@link PdfGenerator} and with the
+ * generator it replaced, which styled every element, compiled the date format
+ * and let each document load its default font on every call. Run with
+ * {@code mvn -Pbenchmark test -Djmh.include=PdfGenerator}; the gc profiler
+ * reports allocation per document next to the time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PdfGeneratorBenchmark {
+
+    private PdfGenerator generator;
+    private Map<String, Object> report;
+    private ByteArrayOutputStream out;
+
+    @State(Scope.Benchmark)
+    public static class Invoice {
+
+        @Param({ "1", "20", "500" })
+        private int items;
+
+        private Map<String, Object> data;
+
+        @Setup
+        public void setUp() {
+            StringJoiner rows = new StringJoiner(";");
+            for (int i = 0; i < items; i++) {
+                rows.add("Product " + i + "|" + (1 + i % 5) + "|19.99|" + (1 + i % 5) * 19.99);
+            }
+            data = new HashMap<>();
+            data.put("invoiceNumber", "INV-1001");
+            data.put("customerName", "Jane Doe");
+            data.put("customerEmail", "jane@example.com");
+            data.put("customerAddress", "1 Main Street");
+            data.put("items", rows.toString());
+            data.put("totalAmount", "1234.56");
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        // The generators log every document at info level
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        generator = new PdfGenerator(new PdfTemplateResources());
+
+        report = new HashMap<>();
+        report.put("reportTitle", "Monthly Report");
+        report.put("summary", "Orders and revenue for the month.");
+        report.put("totalOrders", "1200");
+        report.put("totalRevenue", "98000.00");
+        report.put("activeUsers", "450");
+
+        out = new ByteArrayOutputStream(64 * 1024);
+    }
+
+    @Benchmark
+    public int invoice(Invoice invoice) {
+        out.reset();
+        generator.generateInvoicePdf(invoice.data, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int previousInvoice(Invoice invoice) throws Exception {
+        out.reset();
+        previousInvoicePdf(invoice.data, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int report() {
+        out.reset();
+        generator.generateReportPdf(report, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int previousReport() throws Exception {
+        out.reset();
+        previousReportPdf(report, out);
+        return out.size();
+    }
+
+    private static void previousInvoicePdf(Map<String, Object> data, ByteArrayOutputStream out) throws Exception {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        Document document = new Document(new PdfDocument(writer));
+
+        document.add(new Paragraph("INVOICE").setFontSize(24).setBold().setTextAlignment(TextAlignment.CENTER));
+        document.add(new Paragraph("\n"));
+
+        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        document.add(new Paragraph("Invoice Number: " + data.get("invoiceNumber")).setBold());
+        document.add(new Paragraph("Date: " + date));
+        document.add(new Paragraph("\n"));
+
+        document.add(new Paragraph("Customer Information").setBold().setFontSize(14));
+        document.add(new Paragraph("Name: " + data.get("customerName")));
+        document.add(new Paragraph("Email: " + data.get("customerEmail")));
+        document.add(new Paragraph("Address: " + data.get("customerAddress")));
+        document.add(new Paragraph("\n"));
+
+        document.add(new Paragraph("Items").setBold().setFontSize(14));
+        Table table = new Table(UnitValue.createPercentArray(new float[] { 3, 1, 2, 2 }));
+        table.setWidth(UnitValue.createPercentValue(100));
+        table.addHeaderCell("Item");
+        table.addHeaderCell("Quantity");
+        table.addHeaderCell("Price");
+        table.addHeaderCell("Subtotal");
+        for (String item : ((String) data.get("items")).split(";")) {
+            for (String part : item.split("\\|")) {
+                table.addCell(part);
+            }
+        }
+        document.add(table);
+        document.add(new Paragraph("\n"));
+
+        document.add(new Paragraph("Total Amount: $" + data.get("totalAmount"))
+                .setBold().setFontSize(16).setTextAlignment(TextAlignment.RIGHT));
+        document.add(new Paragraph("\n\n"));
+        document.add(new Paragraph("Thank you for your business!").setTextAlignment(TextAlignment.CENTER).setItalic());
+        document.close();
+    }
+
+    private static void previousReportPdf(Map<String, Object> data, ByteArrayOutputStream out) throws Exception {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        Document document = new Document(new PdfDocument(writer));
+
+        document.add(new Paragraph("BUSINESS REPORT").setFontSize(24).setBold().setTextAlignment(TextAlignment.CENTER));
+        document.add(new Paragraph("\n"));
+
+        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        document.add(new Paragraph("Report: " + data.get("reportTitle")).setBold().setFontSize(16));
+        document.add(new Paragraph("Generated: " + date));
+        document.add(new Paragraph("\n"));
+
+        document.add(new Paragraph("Summary").setBold().setFontSize(14));
+        document.add(new Paragraph((String) data.get("summary")));
+        document.add(new Paragraph("\n"));
+
+        document.add(new Paragraph("Statistics").setBold().setFontSize(14));
+        document.add(new Paragraph("Total Orders: " + data.get("totalOrders")));
+        document.add(new Paragraph("Total Revenue: $" + data.get("totalRevenue")));
+        document.add(new Paragraph("Active Users: " + data.get("activeUsers")));
+        document.close();
+    }
+}
@@ -10,12 +10,29 @@ const api = axios.create({
 });
 
 
+// Latest consistency token from order-service; sent back so reads reflect our own writes
+let consistencyToken = null;
+
+const CONSISTENCY_TOKEN_HEADER = 'X-Consistency-Token';
+
+const isNewerToken = (token) => {
+  if (!consistencyToken) {
+    return true;
+  }
+  const [time, inc] = token.split('.').map(Number);
+  const [currentTime, currentInc] = consistencyToken.split('.').map(Number);
+  return time > currentTime || (time === currentTime && inc > currentInc);
+};
+
 api.interceptors.request.use(
   (config) => {
     const token = localStorage.getItem('token');
     if (token) {
       config.headers.Authorization = `Bearer ${token}`;
     }
+    if (consistencyToken && config.url?.startsWith('/api/orders')) {
+      config.headers[CONSISTENCY_TOKEN_HEADER] = consistencyToken;
+    }
     return config;
   },
   (error) => {
@@ -25,7 +42,13 @@ api.interceptors.request.use(
 
 
 api.interceptors.response.use(
-  (response) => response,
+  (response) => {
+    const token = response.headers[CONSISTENCY_TOKEN_HEADER.toLowerCase()];
+    if (token && isNewerToken(token)) {
+      consistencyToken = token;
+    }
+    return response;
+  },
   (error) => {
     if (error.response?.status === 401) {
 
@@ -62,9 +62,11 @@ function DocumentGeneration() {
             const userResponse = await api.get(`/api/users/${selectedUserId}`);
             const user = userResponse.data;
 
-            // Fetch user's orders
-            const ordersResponse = await api.get(`/api/orders/customer/${selectedUserId}`);
-            const orders = ordersResponse.data;
+            // Orders come back newest first, so the first one is the most recent
+            const ordersResponse = await api.get(`/api/orders/customer/${selectedUserId}`, {
+                params: { limit: 1 },
+            });
+            const orders = ordersResponse.data.items;
 
             if (orders.length === 0) {
                 setError('No orders found for this user');
@@ -72,10 +74,7 @@ function DocumentGeneration() {
                 return;
             }
 
-            // Use the most recent order for the invoice
-            const latestOrder = orders.sort((a, b) =>
-                new Date(b.createdAt) - new Date(a.createdAt)
-            )[0];
+            const latestOrder = orders[0];
 
             // Format items for the invoice
             const itemsString = latestOrder.items.map(item =>
@@ -123,12 +122,25 @@ function DocumentGeneration() {
         generateDocument('/api/documents/generate/pdf/invoice', `invoice_${Date.now()}.pdf`, data);
     };
 
-    const handleGenerateReportPdf = () => {
+    const handleGenerateReportPdf = async () => {
+        // Totals for the current month are aggregated by the order service
+        const now = new Date();
+        const monthStart = new Date(now.getFullYear(), now.getMonth(), 1);
+        let stats = { totalOrders: 0, totalRevenue: 0 };
+        try {
+            const response = await api.get('/api/orders/stats', {
+                params: { from: monthStart.toLocaleDateString('en-CA') },
+            });
+            stats = response.data;
+        } catch (err) {
+            console.error('Failed to fetch order stats:', err);
+        }
+
         const data = {
             reportTitle: 'Monthly Business Report',
             summary: 'This report provides an overview of business performance for the current month.',
-            totalOrders: '125',
-            totalRevenue: '15750.00',
+            totalOrders: String(stats.totalOrders),
+            totalRevenue: Number(stats.totalRevenue).toFixed(2),
             activeUsers: '48',
         };
         generateDocument('/api/documents/generate/pdf/report', `report_${Date.now()}.pdf`, data);
@@ -1,8 +1,12 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import api from '../api';
+import { subscribeToOrderChanges } from '../orderChanges';
 
 function OrderManagement() {
     const [orders, setOrders] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
+    const [searchQuery, setSearchQuery] = useState('');
     const [users, setUsers] = useState([]);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState('');
@@ -18,16 +22,52 @@ function OrderManagement() {
         items: [{ productName: '', quantity: 1, price: 0 }],
     });
 
+    // While the change feed is connected, list updates arrive from the server
+    const liveUpdates = useRef(false);
+    // Applied search query; an empty query lists all orders
+    const activeSearch = useRef('');
+
     useEffect(() => {
         fetchOrders();
         fetchUsers();
     }, []);
 
+    useEffect(() => {
+        return subscribeToOrderChanges({
+            onChange: applyOrderChange,
+            onReset: fetchOrders,
+            onConnectionChange: (connected) => {
+                liveUpdates.current = connected;
+            },
+        });
+    }, []);
+
+    const applyOrderChange = (change) => {
+        setOrders(current => {
+            if (change.operation === 'delete') {
+                return current.filter(o => o.id !== change.orderId);
+            }
+            if (!change.order) {
+                return current;
+            }
+            if (current.some(o => o.id === change.orderId)) {
+                return current.map(o => o.id === change.orderId ? change.order : o);
+            }
+            // New orders may not match an active search, so they only show up in the full list
+            return change.operation === 'insert' && !activeSearch.current ? [change.order, ...current] : current;
+        });
+    };
+
+    const ordersRequest = (cursor) => activeSearch.current
+        ? api.get('/api/orders/search', { params: { q: activeSearch.current, cursor } })
+        : api.get('/api/orders', { params: { cursor } });
+
     const fetchOrders = async () => {
         try {
             setLoading(true);
-            const response = await api.get('/api/orders');
-            setOrders(response.data);
+            const response = await ordersRequest();
+            setOrders(response.data.items);
+            setNextCursor(response.data.nextCursor);
             setError('');
         } catch (err) {
             setError('Failed to fetch orders: ' + (err.response?.data?.message || err.message));
@@ -36,6 +76,31 @@ function OrderManagement() {
         }
     };
 
+    const loadMoreOrders = async () => {
+        try {
+            setLoadingMore(true);
+            const response = await ordersRequest(nextCursor);
+            setOrders([...orders, ...response.data.items]);
+            setNextCursor(response.data.nextCursor);
+        } catch (err) {
+            setError('Failed to fetch orders: ' + (err.response?.data?.message || err.message));
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
+    const handleSearch = (e) => {
+        e.preventDefault();
+        activeSearch.current = searchQuery.trim();
+        fetchOrders();
+    };
+
+    const clearSearch = () => {
+        setSearchQuery('');
+        activeSearch.current = '';
+        fetchOrders();
+    };
+
     const fetchUsers = async () => {
         try {
             const response = await api.get('/api/users');
@@ -87,7 +152,9 @@ function OrderManagement() {
             }
             setShowModal(false);
             resetForm();
-            fetchOrders();
+            if (!liveUpdates.current) {
+                fetchOrders();
+            }
         } catch (err) {
             setError('Failed to save order: ' + (err.response?.data?.message || err.message));
         }
@@ -97,16 +164,45 @@ function OrderManagement() {
         if (window.confirm('Are you sure you want to delete this order?')) {
             try {
                 await api.delete(`/api/orders/${id}`);
-                fetchOrders();
+                if (!liveUpdates.current) {
+                    fetchOrders();
+                }
             } catch (err) {
                 setError('Failed to delete order: ' + (err.response?.data?.message || err.message));
             }
         }
     };
 
+    const nextStatus = {
+        PENDING: { status: 'CONFIRMED', label: 'Confirm' },
+        CONFIRMED: { status: 'SHIPPED', label: 'Ship' },
+        SHIPPED: { status: 'DELIVERED', label: 'Deliver' },
+    };
+
+    const handleAdvanceStatus = async (order) => {
+        const { status } = nextStatus[order.status];
+        try {
+            const response = await api.patch(`/api/orders/${order.id}/status`, {
+                status,
+                version: order.version,
+            });
+            // The response carries the new status and version but not the items
+            setOrders(orders.map(o => o.id === order.id ? { ...o, ...response.data, items: o.items } : o));
+        } catch (err) {
+            if (err.response?.status === 409) {
+                setError(`Order ${order.orderNumber} was changed by someone else, reloading`);
+                fetchOrders();
+            } else {
+                setError('Failed to update order status: ' + (err.response?.data?.message || err.message));
+            }
+        }
+    };
+
     const handleEdit = (order) => {
         setEditingOrder(order);
         setFormData({
+            orderNumber: order.orderNumber,
+            version: order.version,
             customerId: order.customerId,
             customerName: order.customerName,
             customerEmail: order.customerEmail || '',
@@ -173,6 +269,22 @@ function OrderManagement() {
                 </button>
             </div>
 
+            <form onSubmit={handleSearch} style={{ display: 'flex', gap: '0.5rem', marginBottom: '1rem' }}>
+                <input
+                    type="text"
+                    value={searchQuery}
+                    onChange={(e) => setSearchQuery(e.target.value)}
+                    placeholder="Search by order number, customer or product"
+                    style={{ flex: 1 }}
+                />
+                <button type="submit" className="btn">Search</button>
+                {activeSearch.current && (
+                    <button type="button" className="btn btn-secondary" onClick={clearSearch}>
+                        Clear
+                    </button>
+                )}
+            </form>
+
             {error && <div className="error">{error}</div>}
 
             <div className="table-container">
@@ -207,6 +319,11 @@ function OrderManagement() {
                                     </span>
                                 </td>
                                 <td className="action-buttons">
+                                    {nextStatus[order.status] && (
+                                        <button className="btn" onClick={() => handleAdvanceStatus(order)}>
+                                            {nextStatus[order.status].label}
+                                        </button>
+                                    )}
                                     <button className="btn btn-secondary" onClick={() => handleEdit(order)}>
                                         Edit
                                     </button>
@@ -220,6 +337,14 @@ function OrderManagement() {
                 </table>
             </div>
 
+            {nextCursor && (
+                <div style={{ textAlign: 'center', marginTop: '1rem' }}>
+                    <button className="btn btn-secondary" onClick={loadMoreOrders} disabled={loadingMore}>
+                        {loadingMore ? 'Loading...' : 'Load More'}
+                    </button>
+                </div>
+            )}
+
             {showModal && (
                 <div className="modal-overlay" onClick={() => setShowModal(false)}>
                     <div className="modal" onClick={(e) => e.stopPropagation()}>
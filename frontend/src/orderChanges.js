@@ -0,0 +1,96 @@
+import api from './api';
+
+const RECONNECT_DELAY_MS = 3000;
+
+// EventSource cannot send the Authorization header, so the feed is read with fetch
+export function subscribeToOrderChanges({ onChange, onReset, onConnectionChange }) {
+  const controller = new AbortController();
+  let lastEventId = null;
+
+  const handleEvent = (event) => {
+    if (event.event === 'reset') {
+      // The server could not resume the stream, so changes may have been missed
+      lastEventId = null;
+      onReset();
+    } else if (event.event === 'change' && event.data) {
+      lastEventId = event.id || lastEventId;
+      onChange(JSON.parse(event.data));
+    }
+  };
+
+  const connect = async () => {
+    while (!controller.signal.aborted) {
+      try {
+        const headers = { Accept: 'text/event-stream' };
+        const token = localStorage.getItem('token');
+        if (token) {
+          headers.Authorization = `Bearer ${token}`;
+        }
+        if (lastEventId) {
+          headers['Last-Event-ID'] = lastEventId;
+        }
+
+        const response = await fetch(`${api.defaults.baseURL}/api/orders/changes`, {
+          headers,
+          signal: controller.signal,
+        });
+        if (response.ok) {
+          onConnectionChange(true);
+          await readEvents(response.body, handleEvent);
+        }
+      } catch (err) {
+        if (controller.signal.aborted) {
+          return;
+        }
+        console.error('Order change feed disconnected:', err);
+      }
+
+      onConnectionChange(false);
+      await new Promise((resolve) => setTimeout(resolve, RECONNECT_DELAY_MS));
+    }
+  };
+
+  connect();
+  return () => controller.abort();
+}
+
+async function readEvents(body, dispatch) {
+  const reader = body.pipeThrough(new TextDecoderStream()).getReader();
+  let buffer = '';
+  let event = { data: [] };
+
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) {
+      return;
+    }
+
+    buffer += value;
+    const lines = buffer.split(/\r?\n/);
+    buffer = lines.pop();
+
+    for (const line of lines) {
+      if (line === '') {
+        if (event.event || event.data.length) {
+          dispatch({ ...event, data: event.data.join('\n') });
+        }
+        event = { data: [] };
+      } else if (!line.startsWith(':')) {
+        const colon = line.indexOf(':');
+        const field = colon < 0 ? line : line.slice(0, colon);
+        let fieldValue = colon < 0 ? '' : line.slice(colon + 1);
+        if (fieldValue.startsWith(' ')) {
+          fieldValue = fieldValue.slice(1);
+        }
+
+        if (field === 'data') {
+          event.data.push(fieldValue);
+        } else if (field === 'event') {
+          event.event = fieldValue;
+        } else if (field === 'id') {
+          event.id = fieldValue;
+        }
+      }
+    }
+  }
+}
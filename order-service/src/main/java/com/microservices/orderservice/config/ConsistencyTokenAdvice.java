@@ -0,0 +1,40 @@
+package com.microservices.orderservice.config;
+
+import com.microservices.orderservice.service.CausalSessions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Returns the consistency token of the request's session as a response
+ * header, so clients can present it on their next read.
+ */
+@ControllerAdvice
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class ConsistencyTokenAdvice implements ResponseBodyAdvice<Object> {
+
+    private final CausalSessions causalSessions;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        String token = causalSessions.token();
+        if (token != null) {
+            response.getHeaders().set(CausalSessions.TOKEN_HEADER, token);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,52 @@
+package com.microservices.orderservice.config;
+
+import com.microservices.orderservice.service.CausalSessions;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Runs each order API request in a causally consistent Mongo session, resumed
+ * from the consistency token the client sent, if any. The token of the
+ * request's own operations is added to the response by
+ * {@link ConsistencyTokenAdvice}.
+ */
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ConsistencyTokenFilter extends OncePerRequestFilter {
+
+    private final CausalSessions causalSessions;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/orders");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            causalSessions.begin(request.getHeader(CausalSessions.TOKEN_HEADER));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected request with {}", e.getMessage());
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            causalSessions.end();
+        }
+    }
+}
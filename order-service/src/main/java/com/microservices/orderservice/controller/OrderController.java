@@ -1,30 +1,207 @@
 package com.microservices.orderservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.microservices.orderservice.model.CustomerOrderSummary;
 import com.microservices.orderservice.model.Order;
+import com.microservices.orderservice.model.OrderImportResult;
+import com.microservices.orderservice.model.OrderPage;
+import com.microservices.orderservice.model.OrderStats;
+import com.microservices.orderservice.model.OrderStatusUpdate;
+import com.microservices.orderservice.service.CausalSessions;
+import com.microservices.orderservice.service.CustomerOrderSummaryService;
+import com.microservices.orderservice.service.OrderArchiveService;
+import com.microservices.orderservice.service.OrderChangeFeed;
+import com.microservices.orderservice.service.OrderImportService;
+import com.microservices.orderservice.service.OrderSearchService;
 import com.microservices.orderservice.service.OrderService;
+import com.microservices.orderservice.service.OrderStatsService;
+import com.mongodb.client.ClientSession;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/orders")
+@Profile("!reactive")
 @RequiredArgsConstructor
 @Slf4j
 public class OrderController {
 
+    // Orders written between explicit flushes of the NDJSON stream
+    private static final int STREAM_FLUSH_ORDERS = 100;
+
     private final OrderService orderService;
+    private final OrderChangeFeed orderChangeFeed;
+    private final OrderImportService orderImportService;
+    private final OrderStatsService orderStatsService;
+    private final OrderSearchService orderSearchService;
+    private final CustomerOrderSummaryService customerOrderSummaryService;
+    private final OrderArchiveService orderArchiveService;
+    private final CausalSessions causalSessions;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('user', 'admin')")
-    public ResponseEntity<List<Order>> getAllOrders() {
-        log.info("GET /api/orders - Fetching all orders");
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<OrderPage> getAllOrders(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        log.info("GET /api/orders - Fetching orders page");
+        return getOrdersPage(null, null, cursor, limit);
+    }
+
+    /**
+     * Streams every matching order as newline delimited JSON straight from a
+     * Mongo cursor, for exports and clients that want the full result set.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<StreamingResponseBody> streamOrders(@RequestParam(required = false) String status,
+            @RequestParam(required = false) String customerId) {
+        log.info("GET /api/orders/stream - Streaming orders");
+
+        ObjectWriter writer = ndjsonWriter(Order.class);
+        // The body runs on an async thread, which takes over the request's causal session
+        ClientSession session = causalSessions.detach();
+        StreamingResponseBody body = out -> {
+            causalSessions.attach(session);
+            int[] written = { 0 };
+            try (SequenceWriter sequence = writer.writeValues(StreamUtils.nonClosing(out))) {
+                orderService.streamOrders(status, customerId, order -> {
+                    try {
+                        sequence.write(order);
+                        if (++written[0] % STREAM_FLUSH_ORDERS == 0) {
+                            sequence.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                causalSessions.end();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Live feed of order inserts, updates and deletes as Server-Sent Events.
+     * Reconnecting clients pass the last event id to resume where they left off.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<SseEmitter> streamOrderChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("GET /api/orders/changes - Subscribing to order changes");
+        try {
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                    .header("X-Accel-Buffering", "no")
+                    .body(orderChangeFeed.subscribe(lastEventId));
+        } catch (RejectedExecutionException e) {
+            log.warn("Rejected order change subscription: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<OrderStats> getOrderStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int topCustomers) {
+        log.info("GET /api/orders/stats - Computing order stats");
+        try {
+            return ResponseEntity.ok(orderStatsService.getStats(from, to, topCustomers));
+        } catch (RuntimeException e) {
+            log.error("Error computing order stats: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Bulk loads orders from an NDJSON or CSV body and streams back one result
+     * line per record as each batch is written.
+     */
+    @PostMapping(value = "/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE,
+            OrderImportService.TEXT_CSV_VALUE }, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<StreamingResponseBody> importOrders(HttpServletRequest request) {
+        log.info("POST /api/orders/import - Importing orders");
+
+        String contentType = request.getContentType();
+        ObjectWriter writer = ndjsonWriter(OrderImportResult.class);
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter sequence = writer.writeValues(StreamUtils.nonClosing(out))) {
+                orderImportService.importOrders(request.getInputStream(), contentType, results -> {
+                    try {
+                        sequence.writeAll(results);
+                        sequence.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private ObjectWriter ndjsonWriter(Class<?> type) {
+        return objectMapper.writerFor(type)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Searches by order number prefix (e.g. ORD-3F) or by the customer name,
+     * email and product names. By default every word of the query matches the
+     * start of a word ("jo" finds John), newest first; {@code match=text}
+     * instead matches whole words only, best matches first.
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<OrderPage> searchOrders(@RequestParam String q,
+            @RequestParam(defaultValue = OrderSearchService.MATCH_PREFIX) String match,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        log.info("GET /api/orders/search - Searching orders");
+        try {
+            return ResponseEntity.ok(orderSearchService.search(q, match, status, cursor, limit));
+        } catch (RuntimeException e) {
+            log.error("Error searching orders: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -47,16 +224,52 @@ public class OrderController {
 
     @GetMapping("/customer/{customerId}")
     @PreAuthorize("hasAnyRole('user', 'admin')")
-    public ResponseEntity<List<Order>> getOrdersByCustomerId(@PathVariable String customerId) {
+    public ResponseEntity<OrderPage> getOrdersByCustomerId(@PathVariable String customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
         log.info("GET /api/orders/customer/{} - Fetching orders for customer", customerId);
-        return ResponseEntity.ok(orderService.getOrdersByCustomerId(customerId));
+        return getOrdersPage(null, customerId, cursor, limit);
+    }
+
+    @GetMapping("/customer/{customerId}/summary")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<CustomerOrderSummary> getCustomerOrderSummary(@PathVariable String customerId) {
+        log.info("GET /api/orders/customer/{}/summary - Fetching customer order summary", customerId);
+        return customerOrderSummaryService.getSummary(customerId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/summaries/reconcile")
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<Map<String, Long>> reconcileCustomerOrderSummaries() {
+        log.info("POST /api/orders/summaries/reconcile - Rebuilding customer order summaries");
+        return ResponseEntity.ok(Map.of("summaries", customerOrderSummaryService.reconcile()));
+    }
+
+    @PostMapping("/archive/run")
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<Map<String, Long>> archiveOrders() {
+        log.info("POST /api/orders/archive/run - Archiving old orders");
+        return ResponseEntity.ok(Map.of("archived", orderArchiveService.archiveOrders()));
     }
 
     @GetMapping("/status/{status}")
     @PreAuthorize("hasAnyRole('user', 'admin')")
-    public ResponseEntity<List<Order>> getOrdersByStatus(@PathVariable String status) {
+    public ResponseEntity<OrderPage> getOrdersByStatus(@PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
         log.info("GET /api/orders/status/{} - Fetching orders with status", status);
-        return ResponseEntity.ok(orderService.getOrdersByStatus(status));
+        return getOrdersPage(status, null, cursor, limit);
+    }
+
+    private ResponseEntity<OrderPage> getOrdersPage(String status, String customerId, String cursor, int limit) {
+        try {
+            return ResponseEntity.ok(orderService.getOrders(status, customerId, cursor, limit));
+        } catch (RuntimeException e) {
+            log.error("Error fetching orders: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
@@ -79,12 +292,32 @@ public class OrderController {
         try {
             Order updatedOrder = orderService.updateOrder(id, order);
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Conflicting update of order {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             log.error("Error updating order: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @PatchMapping("/{id}/status")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<Order> updateOrderStatus(@PathVariable String id,
+            @Valid @RequestBody OrderStatusUpdate statusUpdate) {
+        log.info("PATCH /api/orders/{}/status - Changing order status to {}", id, statusUpdate.getStatus());
+        try {
+            return ResponseEntity.ok(orderService.changeStatus(id, statusUpdate.getStatus(),
+                    statusUpdate.getVersion()));
+        } catch (OptimisticLockingFailureException | IllegalStateException e) {
+            log.warn("Rejected status change of order {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            log.error("Error changing order status: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('admin')")
     public ResponseEntity<Void> deleteOrder(@PathVariable String id) {
@@ -0,0 +1,250 @@
+package com.microservices.orderservice.controller;
+
+import com.microservices.orderservice.model.CustomerOrderSummary;
+import com.microservices.orderservice.model.Order;
+import com.microservices.orderservice.model.OrderChangeEvent;
+import com.microservices.orderservice.model.OrderPage;
+import com.microservices.orderservice.model.OrderStats;
+import com.microservices.orderservice.model.OrderStatusUpdate;
+import com.microservices.orderservice.service.CustomerOrderSummaryService;
+import com.microservices.orderservice.service.OrderArchiveService;
+import com.microservices.orderservice.service.OrderSearchService;
+import com.microservices.orderservice.service.OrderStatsService;
+import com.microservices.orderservice.service.ReactiveOrderChangeFeed;
+import com.microservices.orderservice.service.ReactiveOrderService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * WebFlux variant of {@link OrderController}, active with the reactive
+ * profile. Streaming, paging and all order writes are non-blocking; stats,
+ * search, customer summaries and archiving reuse the blocking services on the
+ * bounded elastic scheduler. The bulk import endpoint is only available on the
+ * servlet stack.
+ */
+@RestController
+@RequestMapping("/api/orders")
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveOrderController {
+
+    private final ReactiveOrderService reactiveOrderService;
+    private final OrderStatsService orderStatsService;
+    private final OrderSearchService orderSearchService;
+    private final ReactiveOrderChangeFeed reactiveOrderChangeFeed;
+    private final CustomerOrderSummaryService customerOrderSummaryService;
+    private final OrderArchiveService orderArchiveService;
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public Mono<ResponseEntity<OrderPage>> getAllOrders(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        log.info("GET /api/orders - Fetching orders page");
+        return getOrdersPage(null, null, cursor, limit);
+    }
+
+    /**
+     * Streams matching orders as NDJSON. Orders are read from Mongo only as
+     * fast as the client consumes them.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public Flux<Order> streamOrders(@RequestParam(required = false) String status,
+            @RequestParam(required = false) String customerId) {
+        log.info("GET /api/orders/stream - Streaming orders");
+        return reactiveOrderService.streamOrders(status, customerId);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<Flux<ServerSentEvent<OrderChangeEvent>>> streamOrderChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("GET /api/orders/changes - Subscribing to order changes");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(reactiveOrderChangeFeed.changes(lastEventId));
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public Mono<ResponseEntity<OrderStats>> getOrderStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int topCustomers) {
+        log.info("GET /api/orders/stats - Computing order stats");
+        return Mono.fromCallable(() -> orderStatsService.getStats(from, to, topCustomers))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(ResponseEntity::ok)
+                .onErrorResume(RuntimeException.class, e -> {
+                    log.error("Error computing order stats: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().build());
+                });
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public Mono<ResponseEntity<OrderPage>> searchOrders(@RequestParam String q,
+            @RequestParam(defaultValue = OrderSearchService.MATCH_PREFIX) String match,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        log.info("GET /api/orders/search - Searching orders");
+        return Mono.fromCallable(() -> orderSearchService.search(q, match, status, cursor, limit))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(ResponseEntity::ok)
+                .onErrorResume(RuntimeException.class, e -> {
+                    log.error("Error searching orders: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().build());
+                });
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public Mono<ResponseEntity<Order>> getOrderById(@PathVariable String id) {
+        log.info("GET /api/orders/{} - Fetching order by id", id);
+        return reactiveOrderService.getOrderById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/number/{orderNumber}")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public Mono<ResponseEntity<Order>> getOrderByOrderNumber(@PathVariable String orderNumber) {
+        log.info("GET /api/orders/number/{} - Fetching order by order number", orderNumber);
+        return reactiveOrderService.getOrderByOrderNumber(orderNumber)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/customer/{customerId}")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public Mono<ResponseEntity<OrderPage>> getOrdersByCustomerId(@PathVariable String customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        log.info("GET /api/orders/customer/{} - Fetching orders for customer", customerId);
+        return getOrdersPage(null, customerId, cursor, limit);
+    }
+
+    @GetMapping("/customer/{customerId}/summary")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public Mono<ResponseEntity<CustomerOrderSummary>> getCustomerOrderSummary(@PathVariable String customerId) {
+        log.info("GET /api/orders/customer/{}/summary - Fetching customer order summary", customerId);
+        return Mono.fromCallable(() -> customerOrderSummaryService.getSummary(customerId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(summary -> summary.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build()));
+    }
+
+    @PostMapping("/summaries/reconcile")
+    @PreAuthorize("hasRole('admin')")
+    public Mono<ResponseEntity<Map<String, Long>>> reconcileCustomerOrderSummaries() {
+        log.info("POST /api/orders/summaries/reconcile - Rebuilding customer order summaries");
+        return Mono.fromCallable(customerOrderSummaryService::reconcile)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(summaries -> ResponseEntity.ok(Map.of("summaries", summaries)));
+    }
+
+    @PostMapping("/archive/run")
+    @PreAuthorize("hasRole('admin')")
+    public Mono<ResponseEntity<Map<String, Long>>> archiveOrders() {
+        log.info("POST /api/orders/archive/run - Archiving old orders");
+        return Mono.fromCallable(orderArchiveService::archiveOrders)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(archived -> ResponseEntity.ok(Map.of("archived", archived)));
+    }
+
+    @GetMapping("/status/{status}")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public Mono<ResponseEntity<OrderPage>> getOrdersByStatus(@PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        log.info("GET /api/orders/status/{} - Fetching orders with status", status);
+        return getOrdersPage(status, null, cursor, limit);
+    }
+
+    private Mono<ResponseEntity<OrderPage>> getOrdersPage(String status, String customerId, String cursor,
+            int limit) {
+        return reactiveOrderService.getOrders(status, customerId, cursor, limit)
+                .map(ResponseEntity::ok)
+                .onErrorResume(RuntimeException.class, e -> {
+                    log.error("Error fetching orders: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().build());
+                });
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public Mono<ResponseEntity<Order>> createOrder(@Valid @RequestBody Order order) {
+        log.info("POST /api/orders - Creating new order");
+        return reactiveOrderService.createOrder(order)
+                .map(createdOrder -> ResponseEntity.status(HttpStatus.CREATED).body(createdOrder))
+                .onErrorResume(RuntimeException.class, e -> {
+                    log.error("Error creating order: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().build());
+                });
+    }
+
+    @PutMapping("/{id}")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public Mono<ResponseEntity<Order>> updateOrder(@PathVariable String id, @Valid @RequestBody Order order) {
+        log.info("PUT /api/orders/{} - Updating order", id);
+        return reactiveOrderService.updateOrder(id, order)
+                .map(ResponseEntity::ok)
+                .onErrorResume(OptimisticLockingFailureException.class, e -> {
+                    log.warn("Conflicting update of order {}: {}", id, e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
+                })
+                .onErrorResume(RuntimeException.class, e -> {
+                    log.error("Error updating order: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().build());
+                });
+    }
+
+    @PatchMapping("/{id}/status")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public Mono<ResponseEntity<Order>> updateOrderStatus(@PathVariable String id,
+            @Valid @RequestBody OrderStatusUpdate statusUpdate) {
+        log.info("PATCH /api/orders/{}/status - Changing order status to {}", id, statusUpdate.getStatus());
+        return reactiveOrderService.changeStatus(id, statusUpdate.getStatus(), statusUpdate.getVersion())
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> e instanceof OptimisticLockingFailureException
+                        || e instanceof IllegalStateException, e -> {
+                    log.warn("Rejected status change of order {}: {}", id, e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
+                })
+                .onErrorResume(RuntimeException.class, e -> {
+                    log.error("Error changing order status: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.notFound().build());
+                });
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('admin')")
+    public Mono<ResponseEntity<Void>> deleteOrder(@PathVariable String id) {
+        log.info("DELETE /api/orders/{} - Deleting order", id);
+        return reactiveOrderService.deleteOrder(id)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()))
+                .onErrorResume(RuntimeException.class, e -> {
+                    log.error("Error deleting order: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.notFound().build());
+                });
+    }
+}
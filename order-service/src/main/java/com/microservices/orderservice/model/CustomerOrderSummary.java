@@ -0,0 +1,41 @@
+package com.microservices.orderservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Per-customer order totals, kept up to date with $inc as orders change and
+ * rebuilt periodically from the orders collection.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "customer_order_summaries")
+public class CustomerOrderSummary {
+
+    @Id
+    private String customerId;
+
+    private String customerName;
+
+    private long orderCount;
+
+    // Stored as Decimal128 so it can be incremented in place
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal totalAmount;
+
+    private LocalDateTime lastOrderDate;
+
+    private Map<String, Long> statusCounts;
+
+    private LocalDateTime updatedAt;
+}
@@ -1,9 +1,15 @@
 package com.microservices.orderservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.NotBlank;
@@ -16,20 +22,31 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Document(collection = "orders")
+// Text search matches names and products as written, so no stemming or stop words
+@Document(collection = "orders", language = "none")
+// The compound indexes also serve plain customerId and status lookups through their prefix
+@CompoundIndexes({
+        @CompoundIndex(name = "customer_id_page", def = "{'customerId': 1, '_id': -1}"),
+        @CompoundIndex(name = "status_id_page", def = "{'status': 1, '_id': -1}"),
+        // Finds orders due for archiving
+        @CompoundIndex(name = "status_updated_at", def = "{'status': 1, 'updatedAt': 1}")
+})
 public class Order {
 
     @Id
     private String id;
 
+    @Indexed(unique = true)
     private String orderNumber;
 
     @NotBlank(message = "Customer ID is required")
     private String customerId;
 
     @NotBlank(message = "Customer name is required")
+    @TextIndexed(weight = 3)
     private String customerName;
 
+    @TextIndexed(weight = 2)
     private String customerEmail;
 
     @NotNull(message = "Order items are required")
@@ -44,15 +61,26 @@ public class Order {
 
     private String notes;
 
+    @Indexed
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
 
+    // Normalized words of customer name, email and product names for prefix search, see OrderSearchTerms
+    @JsonIgnore
+    @Indexed(name = "search_terms")
+    private List<String> searchTerms;
+
+    // Optimistic lock, incremented on every write
+    @Version
+    private Long version;
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
     public static class OrderItem {
         private String productId;
+        @TextIndexed
         private String productName;
         private Integer quantity;
         private BigDecimal price;
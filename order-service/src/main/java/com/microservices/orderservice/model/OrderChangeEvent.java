@@ -0,0 +1,21 @@
+package com.microservices.orderservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One change to the orders collection, pushed to clients of the change feed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderChangeEvent {
+
+    private String operation; // insert, update, replace, delete
+
+    private String orderId;
+
+    // Current state of the order; null for deletes or if it was deleted before the lookup
+    private Order order;
+}
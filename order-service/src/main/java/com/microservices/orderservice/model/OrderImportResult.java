@@ -0,0 +1,25 @@
+package com.microservices.orderservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one record of a bulk import, streamed back as a line of NDJSON.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderImportResult {
+
+    // 1-based line of the record in the uploaded file (first line of the group for CSV)
+    private long line;
+
+    private String orderNumber;
+
+    private String id;
+
+    private String status; // CREATED, DUPLICATE, INVALID, FAILED
+
+    private String error;
+}
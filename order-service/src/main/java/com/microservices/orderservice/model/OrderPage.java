@@ -0,0 +1,18 @@
+package com.microservices.orderservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPage {
+
+    private List<Order> items;
+
+    // Pass back as ?cursor= to fetch the next page; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,44 @@
+package com.microservices.orderservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStats {
+
+    private long totalOrders;
+
+    private BigDecimal totalRevenue;
+
+    private List<Bucket> byStatus;
+
+    // Keyed by yyyy-MM-dd in the service's time zone, oldest first
+    private List<Bucket> byDay;
+
+    private List<CustomerStats> topCustomers;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private String key;
+        private long orders;
+        private BigDecimal revenue;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CustomerStats {
+        private String customerId;
+        private String customerName;
+        private long orders;
+        private BigDecimal revenue;
+    }
+}
@@ -0,0 +1,18 @@
+package com.microservices.orderservice.model;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusUpdate {
+
+    @NotBlank(message = "Status is required")
+    private String status;
+
+    // Version the client last saw; when set, the change is rejected if the order was modified since
+    private Long version;
+}
@@ -14,6 +14,4 @@ public interface OrderRepository extends MongoRepository<Order, String> {
     List<Order> findByCustomerId(String customerId);
 
     List<Order> findByStatus(String status);
-
-    boolean existsByOrderNumber(String orderNumber);
 }
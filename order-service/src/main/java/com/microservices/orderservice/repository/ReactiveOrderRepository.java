@@ -0,0 +1,11 @@
+package com.microservices.orderservice.repository;
+
+import com.microservices.orderservice.model.Order;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveOrderRepository extends ReactiveMongoRepository<Order, String> {
+    Mono<Order> findByOrderNumber(String orderNumber);
+}
@@ -0,0 +1,63 @@
+package com.microservices.orderservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sequential order numbers leased in blocks from a counter document: one
+ * findAndModify reserves the next block, which is then handed out from
+ * memory. Numbers left in a block when the service stops are skipped.
+ */
+@Component
+@ConditionalOnProperty(name = "order.numbers.generator", havingValue = "block")
+@Slf4j
+public class BlockOrderNumberGenerator implements OrderNumberGenerator {
+
+    static final String COUNTERS_COLLECTION = "counters";
+
+    private static final String COUNTER_ID = "order_number";
+
+    private final MongoTemplate mongoTemplate;
+    private final long blockSize;
+    private long nextValue;
+    private long blockEnd;
+
+    public BlockOrderNumberGenerator(MongoTemplate mongoTemplate,
+            @Value("${order.numbers.block-size:1000}") long blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Order number block size must be positive");
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public synchronized String next() {
+        if (nextValue >= blockEnd) {
+            lease();
+        }
+        return OrderNumberGenerator.format(nextValue++);
+    }
+
+    private void lease() {
+        Document counter = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(COUNTER_ID)),
+                new Update().inc("value", blockSize),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class, COUNTERS_COLLECTION);
+        if (counter == null) {
+            throw new IllegalStateException("Failed to lease a block of order numbers");
+        }
+
+        blockEnd = ((Number) counter.get("value")).longValue();
+        nextValue = blockEnd - blockSize;
+        log.debug("Leased order numbers {} to {}", nextValue, blockEnd - 1);
+    }
+}
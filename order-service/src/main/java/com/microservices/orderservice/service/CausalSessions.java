@@ -0,0 +1,135 @@
+package com.microservices.orderservice.service;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonTimestamp;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes order reads to secondaries while keeping them causally consistent
+ * with the caller's own writes. Each request runs in a causally consistent
+ * client session bound to the current thread; its operation time is handed
+ * to the client as a token and, when presented again, makes secondary reads
+ * wait until the node has caught up to it. Without a bound session reads and
+ * writes go straight to the templates. Work that continues on another thread,
+ * such as a streaming response body, takes the session over with
+ * {@link #detach()} and {@link #attach(ClientSession)}.
+ */
+@Component
+@Slf4j
+public class CausalSessions {
+
+    public static final String TOKEN_HEADER = "X-Consistency-Token";
+
+    private static final ThreadLocal<ClientSession> SESSION = new ThreadLocal<>();
+
+    private final MongoClient mongoClient;
+    private final MongoTemplate mongoTemplate;
+    private final MongoTemplate secondaryTemplate;
+
+    public CausalSessions(MongoClient mongoClient, MongoTemplate mongoTemplate,
+            @Value("${order.reads.read-preference:secondaryPreferred}") String readPreference) {
+        this.mongoClient = mongoClient;
+        this.mongoTemplate = mongoTemplate;
+
+        // The read preference is applied to the database so it also holds for session-bound operations
+        ReadPreference preference = ReadPreference.valueOf(readPreference);
+        String database = mongoTemplate.getDb().getName();
+        this.secondaryTemplate = new MongoTemplate(new SimpleMongoClientDatabaseFactory(mongoClient, database) {
+            @Override
+            protected MongoDatabase doGetMongoDatabase(String dbName) {
+                return super.doGetMongoDatabase(dbName).withReadPreference(preference);
+            }
+        }, mongoTemplate.getConverter());
+        log.info("Order reads use read preference {}", preference.getName());
+    }
+
+    /**
+     * Starts a session for the current thread, advanced to the given token if
+     * the client presented one.
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public void begin(String token) {
+        BsonTimestamp operationTime = parseToken(token);
+        ClientSession session = mongoClient.startSession(ClientSessionOptions.builder()
+                .causallyConsistent(true)
+                .build());
+        if (operationTime != null) {
+            session.advanceOperationTime(operationTime);
+        }
+        SESSION.set(session);
+    }
+
+    /**
+     * Unbinds the current session without closing it, so that it outlives the
+     * request thread. The caller must {@link #attach} it where the work
+     * continues and {@link #end()} it there.
+     *
+     * @return the session, or {@code null} if none is bound
+     */
+    public ClientSession detach() {
+        ClientSession session = SESSION.get();
+        SESSION.remove();
+        return session;
+    }
+
+    public void attach(ClientSession session) {
+        if (session != null) {
+            SESSION.set(session);
+        }
+    }
+
+    public void end() {
+        ClientSession session = SESSION.get();
+        if (session != null) {
+            SESSION.remove();
+            session.close();
+        }
+    }
+
+    /**
+     * @return the operation time of the last operation in the current session,
+     *         or {@code null} if there is none (e.g. against a standalone server)
+     */
+    public String token() {
+        ClientSession session = SESSION.get();
+        BsonTimestamp operationTime = session != null ? session.getOperationTime() : null;
+        return operationTime != null ? operationTime.getTime() + "." + operationTime.getInc() : null;
+    }
+
+    public MongoOperations reads() {
+        ClientSession session = SESSION.get();
+        return session != null ? secondaryTemplate.withSession(session) : secondaryTemplate;
+    }
+
+    public MongoOperations writes() {
+        ClientSession session = SESSION.get();
+        return session != null ? mongoTemplate.withSession(session) : mongoTemplate;
+    }
+
+    static BsonTimestamp parseToken(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        int dot = token.indexOf('.');
+        try {
+            if (dot <= 0) {
+                throw new NumberFormatException();
+            }
+            return new BsonTimestamp(Integer.parseUnsignedInt(token.substring(0, dot)),
+                    Integer.parseUnsignedInt(token.substring(dot + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid consistency token: " + token);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.Order;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * CSV with a header row and one line per order item. Consecutive lines with
+ * the same orderNumber make up one order; order level columns are taken from
+ * the first of them. Quoted fields may contain commas and doubled quotes, but
+ * not line breaks.
+ */
+class CsvOrderReader implements OrderRecordReader {
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> positions = new HashMap<>();
+    private long lineNumber;
+    private List<String> pendingRow;
+    private long pendingLine;
+
+    CsvOrderReader(InputStream input) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        List<String> header = readRow();
+        if (header != null) {
+            for (int i = 0; i < header.size(); i++) {
+                positions.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+        }
+    }
+
+    @Override
+    public OrderRecord next() throws IOException {
+        List<String> row = pendingRow != null ? pendingRow : readRow();
+        if (row == null) {
+            return null;
+        }
+        long line = pendingRow != null ? pendingLine : lineNumber;
+        pendingRow = null;
+
+        String orderNumber = value(row, "orderNumber");
+        String error = null;
+        Order order = new Order();
+        order.setOrderNumber(orderNumber);
+        order.setCustomerId(value(row, "customerId"));
+        order.setCustomerName(value(row, "customerName"));
+        order.setCustomerEmail(value(row, "customerEmail"));
+        order.setStatus(value(row, "status"));
+        order.setShippingAddress(value(row, "shippingAddress"));
+        order.setNotes(value(row, "notes"));
+        order.setItems(new ArrayList<>());
+
+        // The whole group is consumed even after an error, so its lines are not read as new orders
+        while (row != null) {
+            try {
+                if (order.getItems().isEmpty()) {
+                    order.setCreatedAt(dateTime(value(row, "createdAt")));
+                }
+                order.getItems().add(item(row));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                if (error == null) {
+                    error = "Invalid value on line " + lineNumber + ": " + e.getMessage();
+                }
+            }
+
+            row = readRow();
+            if (row != null && (orderNumber == null || !orderNumber.equals(value(row, "orderNumber")))) {
+                pendingRow = row;
+                pendingLine = lineNumber;
+                break;
+            }
+        }
+
+        return error == null
+                ? new OrderRecord(line, orderNumber, order, null)
+                : new OrderRecord(line, orderNumber, null, error);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Order.OrderItem item(List<String> row) {
+        String quantity = value(row, "quantity");
+        String price = value(row, "price");
+
+        Order.OrderItem item = new Order.OrderItem();
+        item.setProductId(value(row, "productId"));
+        item.setProductName(value(row, "productName"));
+        item.setQuantity(quantity != null ? Integer.valueOf(quantity) : null);
+        item.setPrice(price != null ? new BigDecimal(price) : null);
+        return item;
+    }
+
+    private static LocalDateTime dateTime(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+    }
+
+    private String value(List<String> row, String column) {
+        Integer position = positions.get(column.toLowerCase(Locale.ROOT));
+        if (position == null || position >= row.size()) {
+            return null;
+        }
+        String value = row.get(position).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private List<String> readRow() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+        return parseLine(line);
+    }
+
+    private static List<String> parseLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
@@ -0,0 +1,198 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.CustomerOrderSummary;
+import com.microservices.orderservice.model.Order;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.LiteralOperators;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the customer_order_summaries collection. Every order write applies
+ * a single-document $inc upsert, so a lookup never touches the orders
+ * themselves. The increments are not transactional with the order write; a
+ * failed or interleaved update is logged and corrected by {@link #reconcile()}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerOrderSummaryService {
+
+    private static final String UNKNOWN_STATUS = "UNKNOWN";
+
+    private final MongoTemplate mongoTemplate;
+
+    public Optional<CustomerOrderSummary> getSummary(String customerId) {
+        log.info("Fetching order summary for customer: {}", customerId);
+        return Optional.ofNullable(mongoTemplate.findById(customerId, CustomerOrderSummary.class));
+    }
+
+    public void orderCreated(Order order) {
+        ordersCreated(List.of(order));
+    }
+
+    /**
+     * Applies a batch of new orders with one upsert per customer, sent as a
+     * single unordered bulk write.
+     */
+    public void ordersCreated(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<Order>> byCustomer = orders.stream()
+                .collect(Collectors.groupingBy(Order::getCustomerId, LinkedHashMap::new, Collectors.toList()));
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CustomerOrderSummary.class);
+        byCustomer.forEach((customerId, customerOrders) -> {
+            Update update = new Update()
+                    .set("updatedAt", LocalDateTime.now())
+                    .inc("orderCount", customerOrders.size());
+            BigDecimal total = BigDecimal.ZERO;
+            Map<String, Integer> statusCounts = new HashMap<>();
+            LocalDateTime lastOrderDate = null;
+            for (Order order : customerOrders) {
+                total = total.add(amount(order));
+                statusCounts.merge(status(order), 1, Integer::sum);
+                if (order.getCreatedAt() != null
+                        && (lastOrderDate == null || order.getCreatedAt().isAfter(lastOrderDate))) {
+                    lastOrderDate = order.getCreatedAt();
+                }
+                update.set("customerName", order.getCustomerName());
+            }
+            update.inc("totalAmount", decimal(total));
+            statusCounts.forEach((status, count) -> update.inc("statusCounts." + status, count));
+            if (lastOrderDate != null) {
+                update.max("lastOrderDate", lastOrderDate);
+            }
+            bulk.upsert(Query.query(Criteria.where("_id").is(customerId)), update);
+        });
+
+        try {
+            bulk.execute();
+        } catch (DataAccessException e) {
+            log.warn("Failed to update order summaries for {} customers: {}", byCustomer.size(), e.getMessage());
+        }
+    }
+
+    public void orderUpdated(Order previous, Order order) {
+        if (!Objects.equals(previous.getCustomerId(), order.getCustomerId())) {
+            orderDeleted(previous);
+            orderCreated(order);
+            return;
+        }
+
+        Update update = new Update()
+                .inc("totalAmount", decimal(amount(order).subtract(amount(previous))))
+                .set("customerName", order.getCustomerName())
+                .set("updatedAt", LocalDateTime.now());
+        if (!Objects.equals(status(previous), status(order))) {
+            update.inc("statusCounts." + status(previous), -1)
+                    .inc("statusCounts." + status(order), 1);
+        }
+        apply(order.getCustomerId(), update);
+    }
+
+    /**
+     * lastOrderDate is left as is, since the previous order date is not known
+     * here; the next reconciliation brings it back in line.
+     */
+    public void orderDeleted(Order order) {
+        apply(order.getCustomerId(), increments(order, -1));
+    }
+
+    /**
+     * Rebuilds all summaries from the hot and archived orders and atomically
+     * replaces the current ones. Increments applied while the rebuild runs may
+     * be lost, which the next run corrects.
+     */
+    @Scheduled(cron = "${order.summaries.reconcile-cron:0 0 3 * * *}")
+    public long reconcile() {
+        log.info("Reconciling customer order summaries");
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                UnionWithOperation.unionWith(OrderArchiveService.ARCHIVE_COLLECTION),
+                Aggregation.project("customerId", "customerName", "createdAt")
+                        .and(ConditionalOperators.ifNull("status").then(UNKNOWN_STATUS)).as("status")
+                        .and(ConvertOperators.valueOf("totalAmount").convertToDecimal()).as("amount"),
+                Aggregation.group("customerId", "status")
+                        .count().as("count")
+                        .sum("amount").as("amount")
+                        .max("createdAt").as("lastOrderDate")
+                        .last("customerName").as("customerName"),
+                Aggregation.group("customerId")
+                        .sum("count").as("orderCount")
+                        .sum("amount").as("totalAmount")
+                        .max("lastOrderDate").as("lastOrderDate")
+                        .last("customerName").as("customerName")
+                        .push(new Document("k", "$_id.status").append("v", "$count")).as("statusCounts"),
+                Aggregation.project("customerName", "orderCount", "totalAmount", "lastOrderDate")
+                        .and(ArrayOperators.ArrayToObject.arrayValueOfToObject("statusCounts")).as("statusCounts")
+                        .and(LiteralOperators.valueOf(new Date()).asLiteral()).as("updatedAt"),
+                Aggregation.out(mongoTemplate.getCollectionName(CustomerOrderSummary.class)))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        mongoTemplate.aggregate(aggregation, Order.class, Document.class);
+
+        long summaries = mongoTemplate.estimatedCount(CustomerOrderSummary.class);
+        log.info("Reconciled {} customer order summaries", summaries);
+        return summaries;
+    }
+
+    private Update increments(Order order, int direction) {
+        BigDecimal amount = amount(order);
+        return new Update()
+                .inc("orderCount", direction)
+                .inc("totalAmount", decimal(direction < 0 ? amount.negate() : amount))
+                .inc("statusCounts." + status(order), direction)
+                .set("updatedAt", LocalDateTime.now());
+    }
+
+    private void apply(String customerId, Update update) {
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(customerId)), update,
+                    CustomerOrderSummary.class);
+        } catch (DataAccessException e) {
+            // The order itself was written; the summary catches up on the next reconciliation
+            log.warn("Failed to update order summary for customer {}: {}", customerId, e.getMessage());
+        }
+    }
+
+    private static BigDecimal amount(Order order) {
+        return order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO;
+    }
+
+    private static String status(Order order) {
+        return order.getStatus() != null ? order.getStatus() : UNKNOWN_STATUS;
+    }
+
+    private static Decimal128 decimal(BigDecimal value) {
+        return new Decimal128(value);
+    }
+}
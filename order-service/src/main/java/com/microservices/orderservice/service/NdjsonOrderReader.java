@@ -0,0 +1,51 @@
+package com.microservices.orderservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.microservices.orderservice.model.Order;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One JSON order per line. Lines are parsed independently, so a malformed
+ * line is reported without aborting the rest of the import.
+ */
+class NdjsonOrderReader implements OrderRecordReader {
+
+    private final BufferedReader reader;
+    private final ObjectReader orderReader;
+    private long lineNumber;
+
+    NdjsonOrderReader(InputStream input, ObjectReader orderReader) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.orderReader = orderReader;
+    }
+
+    @Override
+    public OrderRecord next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+
+        try {
+            Order order = orderReader.readValue(line);
+            return new OrderRecord(lineNumber, order.getOrderNumber(), order, null);
+        } catch (JsonProcessingException e) {
+            return new OrderRecord(lineNumber, null, null, "Malformed order: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,163 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.Order;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Moves delivered and cancelled orders that have not changed for the
+ * configured age from the orders collection to orders_archive, so the hot
+ * collection and its indexes stay small. Archived orders are read-only and
+ * still found by id and order number.
+ * <p>
+ * Each batch is copied to the archive with idempotent upserts before it is
+ * removed from the hot collection, so an interrupted run leaves at most a
+ * duplicate copy that the next run resolves.
+ */
+@Service
+@Slf4j
+public class OrderArchiveService {
+
+    public static final String ARCHIVE_COLLECTION = "orders_archive";
+
+    private static final List<String> ARCHIVED_STATUSES = List.of("DELIVERED", "CANCELLED");
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration minAge;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public OrderArchiveService(MongoTemplate mongoTemplate,
+            @Value("${order.archive.min-age:180d}") Duration minAge,
+            @Value("${order.archive.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void initializeIndexes() {
+        IndexOperations indexes = mongoTemplate.indexOps(ARCHIVE_COLLECTION);
+        indexes.ensureIndex(new Index().on("orderNumber", Sort.Direction.ASC).named("order_number"));
+        indexes.ensureIndex(new Index().on("customerId", Sort.Direction.ASC).on("_id", Sort.Direction.DESC)
+                .named("customer_id_page"));
+        indexes.ensureIndex(new Index().on("createdAt", Sort.Direction.ASC).named("created_at"));
+    }
+
+    public Optional<Order> findById(String id) {
+        return Optional.ofNullable(mongoTemplate.findById(id, Order.class, ARCHIVE_COLLECTION));
+    }
+
+    public Optional<Order> findByOrderNumber(String orderNumber) {
+        return Optional.ofNullable(mongoTemplate.findOne(orderNumberQuery(orderNumber), Order.class,
+                ARCHIVE_COLLECTION));
+    }
+
+    public boolean containsOrderNumber(String orderNumber) {
+        return mongoTemplate.exists(orderNumberQuery(orderNumber), ARCHIVE_COLLECTION);
+    }
+
+    /**
+     * @return those of the given order numbers that are in the archive
+     */
+    public Set<String> archivedOrderNumbers(Collection<String> orderNumbers) {
+        Query query = Query.query(Criteria.where("orderNumber").in(orderNumbers));
+        query.fields().include("orderNumber").exclude("_id");
+        return mongoTemplate.find(query, Document.class, ARCHIVE_COLLECTION).stream()
+                .map(order -> order.getString("orderNumber"))
+                .collect(Collectors.toSet());
+    }
+
+    static Query orderNumberQuery(String orderNumber) {
+        return Query.query(Criteria.where("orderNumber").is(orderNumber));
+    }
+
+    /**
+     * @return the number of orders moved to the archive
+     */
+    @Scheduled(cron = "${order.archive.cron:0 30 2 * * *}")
+    public long archiveOrders() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Order archiving is already running");
+            return 0;
+        }
+
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(minAge);
+            log.info("Archiving orders last updated before {}", cutoff);
+
+            Query candidates = Query.query(Criteria.where("status").in(ARCHIVED_STATUSES)
+                    .and("updatedAt").lt(cutoff)).limit(batchSize);
+            long archived = 0;
+            while (true) {
+                List<Document> batch = mongoTemplate.find(candidates, Document.class,
+                        mongoTemplate.getCollectionName(Order.class));
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                int moved = archiveBatch(batch);
+                archived += moved;
+                // Stop rather than spin if every order of the batch changed while it was copied
+                if (moved == 0 || batch.size() < batchSize) {
+                    break;
+                }
+            }
+
+            log.info("Archived {} orders", archived);
+            return archived;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveBatch(List<Document> batch) {
+        String ordersCollection = mongoTemplate.getCollectionName(Order.class);
+
+        // Raw documents are copied so the archive keeps exactly what was stored
+        BulkOperations copy = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ARCHIVE_COLLECTION);
+        for (Document order : batch) {
+            copy.replaceOne(Query.query(Criteria.where("_id").is(order.get("_id"))), order,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        copy.execute();
+
+        // Only orders still at the copied version are removed; the others stay hot
+        BulkOperations remove = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ordersCollection);
+        for (Document order : batch) {
+            remove.remove(Query.query(Criteria.where("_id").is(order.get("_id"))
+                    .and("version").is(order.get("version"))));
+        }
+        int removed = remove.execute().getDeletedCount();
+
+        if (removed < batch.size()) {
+            List<Object> ids = batch.stream().map(order -> order.get("_id")).toList();
+            List<Object> stillHot = mongoTemplate.findDistinct(Query.query(Criteria.where("_id").in(ids)), "_id",
+                    ordersCollection, Object.class);
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(stillHot)), ARCHIVE_COLLECTION);
+            log.debug("{} orders changed while being archived and stay in the hot collection", stillHot.size());
+        }
+        return removed;
+    }
+}
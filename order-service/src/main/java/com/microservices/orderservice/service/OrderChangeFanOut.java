@@ -0,0 +1,97 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.OrderChangeEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Bookkeeping for the single change stream an instance shares between its
+ * change feed clients: the clients receiving it and the most recent changes,
+ * so that a reconnecting client can be replayed what it missed and join.
+ * <p>
+ * Publishing a change and joining a client happen under one lock, so a client
+ * joining after a given change gets every later change exactly once: either
+ * from the replay or from the stream.
+ *
+ * @param <C> the per-client sink, an SSE emitter or a reactive sink
+ */
+class OrderChangeFanOut<C> {
+
+    record Change(String id, OrderChangeEvent event) {
+    }
+
+    private final int replaySize;
+    private final Deque<Change> recent = new ArrayDeque<>();
+    private final Set<C> clients = new LinkedHashSet<>();
+
+    OrderChangeFanOut(int replaySize) {
+        this.replaySize = replaySize;
+    }
+
+    /**
+     * Records a change of the shared stream and returns the clients to send it to.
+     */
+    synchronized List<C> publish(Change change) {
+        recent.addLast(change);
+        if (recent.size() > replaySize) {
+            recent.removeFirst();
+        }
+        return new ArrayList<>(clients);
+    }
+
+    /**
+     * Adds the client if the shared stream has passed the change with the given
+     * id, after passing the later changes to {@code replay}. A null id joins
+     * without replay.
+     *
+     * @return false if the change is not among the recent changes
+     */
+    synchronized boolean join(C client, String lastId, Consumer<List<Change>> replay) {
+        if (lastId != null) {
+            List<Change> missed = new ArrayList<>();
+            boolean found = false;
+            for (Change change : recent) {
+                if (found) {
+                    missed.add(change);
+                } else {
+                    found = change.id().equals(lastId);
+                }
+            }
+            if (!found) {
+                return false;
+            }
+            replay.accept(missed);
+        }
+        clients.add(client);
+        return true;
+    }
+
+    synchronized boolean leave(C client) {
+        return clients.remove(client);
+    }
+
+    synchronized int size() {
+        return clients.size();
+    }
+
+    synchronized List<C> clients() {
+        return new ArrayList<>(clients);
+    }
+
+    /**
+     * Forgets the recent changes and removes every client, for when the shared
+     * stream has to start over.
+     */
+    synchronized List<C> reset() {
+        recent.clear();
+        List<C> removed = new ArrayList<>(clients);
+        clients.clear();
+        return removed;
+    }
+}
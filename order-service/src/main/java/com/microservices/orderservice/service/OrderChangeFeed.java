@@ -0,0 +1,251 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.Order;
+import com.microservices.orderservice.model.OrderChangeEvent;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.MessageListener;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Subscription;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Pushes changes of the orders collection to Server-Sent Events clients. The
+ * instance reads one shared change stream and fans each change out to its
+ * clients, keeping the last few changes so that a client reconnecting with the
+ * resume token it last saw (sent as the SSE event id and returned by browsers
+ * in the Last-Event-ID header) is replayed what it missed. A client that is
+ * further behind gets its own change stream resumed from its token until that
+ * stream reaches a change the shared one has seen, and then joins the shared
+ * stream. If its stream cannot be resumed, the client is sent a {@code reset}
+ * event and should reload its data before reconnecting.
+ */
+@Service
+@Profile("!reactive")
+@Slf4j
+public class OrderChangeFeed {
+
+    static final String ORDERS_COLLECTION = "orders";
+    static final String CHANGE_EVENT = "change";
+    static final String RESET_EVENT = "reset";
+
+    private static final List<String> OPERATIONS = List.of("insert", "update", "replace", "delete");
+
+    private final MessageListenerContainer container;
+    private final Duration timeout;
+    private final int maxSubscribers;
+    private final OrderChangeFanOut<SseEmitter> fanOut;
+    private final Map<SseEmitter, Subscription> catchUps = new ConcurrentHashMap<>();
+    private final AtomicBoolean sharedFailed = new AtomicBoolean();
+    private volatile Subscription shared;
+
+    public OrderChangeFeed(MongoTemplate mongoTemplate,
+            @Value("${order.changes.timeout:30m}") Duration timeout,
+            @Value("${order.changes.max-subscribers:200}") int maxSubscribers,
+            @Value("${order.changes.replay-size:1000}") int replaySize) {
+        this.container = new DefaultMessageListenerContainer(mongoTemplate,
+                new SimpleAsyncTaskExecutor("order-changes-"));
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+        this.fanOut = new OrderChangeFanOut<>(replaySize);
+    }
+
+    @PostConstruct
+    public void start() {
+        container.start();
+        startShared();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOut.reset().forEach(SseEmitter::complete);
+        catchUps.keySet().forEach(SseEmitter::complete);
+        container.stop();
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        if (fanOut.size() + catchUps.size() >= maxSubscribers) {
+            throw new RejectedExecutionException("Order change feed has reached its subscriber limit");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Runnable unsubscribe = () -> {
+            fanOut.leave(emitter);
+            stopCatchUp(emitter);
+        };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+
+        String lastId = StringUtils.hasText(lastEventId) ? lastEventId : null;
+        boolean joined = fanOut.join(emitter, lastId, missed -> missed.forEach(change -> send(emitter, change)));
+        log.info("Subscribing to order changes, resuming: {}, catching up: {}", lastId != null, !joined);
+        if (!joined) {
+            catchUp(emitter, lastId);
+        }
+        return emitter;
+    }
+
+    /**
+     * Sends an SSE comment to idle clients so that proxies do not close the
+     * connection and disconnected clients are noticed. Also restarts the
+     * shared stream after it failed.
+     */
+    @Scheduled(fixedDelayString = "${order.changes.heartbeat-interval:15000}")
+    public void heartbeat() {
+        if (sharedFailed.compareAndSet(true, false)) {
+            container.remove(shared);
+            startShared();
+        }
+
+        List<SseEmitter> emitters = fanOut.clients();
+        emitters.addAll(catchUps.keySet());
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().comment("keepalive"));
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    /**
+     * Starts the stream shared by all caught up clients from the current
+     * position. When it fails its clients are disconnected and reconnect with
+     * their last event id, catching up on their own streams until it is back.
+     */
+    private void startShared() {
+        MessageListener<ChangeStreamDocument<Document>, Order> listener = message -> {
+            OrderChangeFanOut.Change change = toChange(message.getRaw(), message.getBody());
+            for (SseEmitter emitter : fanOut.publish(change)) {
+                send(emitter, change);
+            }
+        };
+        shared = container.register(changeRequest(listener, null), Order.class, error -> {
+            log.warn("Shared order change stream failed: {}", error.getMessage());
+            fanOut.reset().forEach(SseEmitter::complete);
+            sharedFailed.set(true);
+        });
+    }
+
+    private void catchUp(SseEmitter emitter, String lastId) {
+        AtomicBoolean caughtUp = new AtomicBoolean();
+        MessageListener<ChangeStreamDocument<Document>, Order> listener = message -> {
+            if (caughtUp.get()) {
+                return;
+            }
+            OrderChangeFanOut.Change change = toChange(message.getRaw(), message.getBody());
+            send(emitter, change);
+            if (fanOut.join(emitter, change.id(), missed -> missed.forEach(next -> send(emitter, next)))) {
+                caughtUp.set(true);
+                stopCatchUp(emitter);
+            }
+        };
+
+        Subscription subscription = container.register(changeRequest(listener, resumeToken(lastId)), Order.class,
+                error -> {
+                    if (!caughtUp.get()) {
+                        log.warn("Order change stream failed: {}", error.getMessage());
+                        sendReset(emitter);
+                        emitter.complete();
+                    }
+                });
+        catchUps.put(emitter, subscription);
+        if (caughtUp.get()) {
+            stopCatchUp(emitter);
+        }
+    }
+
+    private void stopCatchUp(SseEmitter emitter) {
+        Subscription removed = catchUps.remove(emitter);
+        if (removed != null) {
+            container.remove(removed);
+        }
+    }
+
+    private static ChangeStreamRequest<Order> changeRequest(
+            MessageListener<ChangeStreamDocument<Document>, Order> listener, BsonDocument resumeToken) {
+        ChangeStreamRequest.ChangeStreamRequestBuilder<Order> request = ChangeStreamRequest.builder(listener)
+                .collection(ORDERS_COLLECTION)
+                .filter(operationFilter())
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+        if (resumeToken != null) {
+            request.resumeToken(resumeToken);
+        }
+        return request.build();
+    }
+
+    private static void send(SseEmitter emitter, OrderChangeFanOut.Change change) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(change.id())
+                    .name(CHANGE_EVENT)
+                    .data(change.event(), MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static void sendReset(SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().name(RESET_EVENT).data(""));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Could not send reset to order change client: {}", e.getMessage());
+        }
+    }
+
+    static Aggregation operationFilter() {
+        return Aggregation.newAggregation(match(where("operationType").in(OPERATIONS)));
+    }
+
+    static BsonDocument resumeToken(String lastEventId) {
+        return StringUtils.hasText(lastEventId) ? new BsonDocument("_data", new BsonString(lastEventId)) : null;
+    }
+
+    static String eventId(BsonDocument resumeToken) {
+        return resumeToken.getString("_data").getValue();
+    }
+
+    static OrderChangeFanOut.Change toChange(ChangeStreamDocument<Document> change, Order order) {
+        return new OrderChangeFanOut.Change(eventId(change.getResumeToken()),
+                toEvent(change.getOperationTypeString(), change.getDocumentKey(), order));
+    }
+
+    static OrderChangeEvent toEvent(String operation, BsonDocument documentKey, Order order) {
+        BsonValue id = documentKey != null ? documentKey.get("_id") : null;
+        String orderId = id == null ? null
+                : id.isObjectId() ? id.asObjectId().getValue().toHexString()
+                : id.isString() ? id.asString().getValue()
+                : id.toString();
+        return new OrderChangeEvent(operation, orderId, "delete".equals(operation) ? null : order);
+    }
+}
@@ -0,0 +1,244 @@
+package com.microservices.orderservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.microservices.orderservice.model.Order;
+import com.microservices.orderservice.model.OrderImportResult;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Loads orders from an NDJSON or CSV upload. Records are parsed one at a time,
+ * validated, priced and written in unordered bulk inserts, so throughput does
+ * not depend on per-order round trips and the file is never held in memory.
+ * Results are handed back per batch, in input order.
+ */
+@Service
+@Slf4j
+public class OrderImportService {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    public static final String STATUS_CREATED = "CREATED";
+    public static final String STATUS_DUPLICATE = "DUPLICATE";
+    public static final String STATUS_INVALID = "INVALID";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final CustomerOrderSummaryService customerOrderSummaryService;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final Validator validator;
+    private final ObjectReader orderReader;
+    private final int batchSize;
+
+    public OrderImportService(MongoTemplate mongoTemplate, CustomerOrderSummaryService customerOrderSummaryService,
+            OrderArchiveService orderArchiveService, OrderNumberGenerator orderNumberGenerator, Validator validator,
+            ObjectMapper objectMapper, @Value("${order.import.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.customerOrderSummaryService = customerOrderSummaryService;
+        this.orderArchiveService = orderArchiveService;
+        this.orderNumberGenerator = orderNumberGenerator;
+        this.validator = validator;
+        this.orderReader = objectMapper.readerFor(Order.class);
+        this.batchSize = batchSize;
+    }
+
+    public void importOrders(InputStream input, String contentType, Consumer<List<OrderImportResult>> results) {
+        log.info("Importing orders, format: {}", contentType);
+
+        long created = 0;
+        long rejected = 0;
+        List<Order> batch = new ArrayList<>(batchSize);
+        List<OrderImportResult> batchResults = new ArrayList<>(batchSize);
+        List<OrderImportResult> insertResults = new ArrayList<>(batchSize);
+        Set<String> suppliedNumbers = new HashSet<>();
+
+        try (OrderRecordReader reader = openReader(input, contentType)) {
+            OrderRecordReader.OrderRecord record;
+            while ((record = reader.next()) != null) {
+                OrderImportResult result = new OrderImportResult(record.line(), record.orderNumber(), null, null,
+                        record.error());
+                String violation = record.order() != null ? validate(record.order()) : record.error();
+
+                if (violation != null) {
+                    result.setStatus(STATUS_INVALID);
+                    result.setError(violation);
+                } else {
+                    if (StringUtils.hasText(record.order().getOrderNumber())) {
+                        suppliedNumbers.add(record.order().getOrderNumber());
+                    }
+                    Order order = prepare(record.order());
+                    result.setOrderNumber(order.getOrderNumber());
+                    result.setId(order.getId());
+                    batch.add(order);
+                    insertResults.add(result);
+                }
+                batchResults.add(result);
+
+                if (batchResults.size() >= batchSize) {
+                    insertBatch(batch, insertResults, suppliedNumbers);
+                    created += count(batchResults, STATUS_CREATED);
+                    rejected += batchResults.size() - count(batchResults, STATUS_CREATED);
+                    results.accept(List.copyOf(batchResults));
+                    batch.clear();
+                    batchResults.clear();
+                    insertResults.clear();
+                    suppliedNumbers.clear();
+                }
+            }
+
+            insertBatch(batch, insertResults, suppliedNumbers);
+            created += count(batchResults, STATUS_CREATED);
+            rejected += batchResults.size() - count(batchResults, STATUS_CREATED);
+            if (!batchResults.isEmpty()) {
+                results.accept(List.copyOf(batchResults));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read order import", e);
+        }
+
+        log.info("Order import finished - Created: {}, Rejected: {}", created, rejected);
+    }
+
+    private OrderRecordReader openReader(InputStream input, String contentType) throws IOException {
+        MediaType mediaType = contentType != null ? MediaType.parseMediaType(contentType) : MediaType.APPLICATION_NDJSON;
+        if (mediaType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))) {
+            return new CsvOrderReader(input);
+        }
+        if (mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+            return new NdjsonOrderReader(input, orderReader);
+        }
+        throw new RuntimeException("Unsupported import format: " + contentType);
+    }
+
+    private String validate(Order order) {
+        Set<ConstraintViolation<Order>> violations = validator.validate(order);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (order.getItems().isEmpty()) {
+            return "Order items are required";
+        }
+        for (Order.OrderItem item : order.getItems()) {
+            if (item.getPrice() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                return "Every item needs a price and a positive quantity";
+            }
+        }
+        return null;
+    }
+
+    private Order prepare(Order order) {
+        if (!StringUtils.hasText(order.getOrderNumber())) {
+            order.setOrderNumber(orderNumberGenerator.next());
+        }
+        if (order.getStatus() == null || order.getStatus().isEmpty()) {
+            order.setStatus("PENDING");
+        }
+        if (order.getCreatedAt() == null) {
+            order.setCreatedAt(LocalDateTime.now());
+        }
+        order.setUpdatedAt(LocalDateTime.now());
+        OrderPricing.price(order);
+
+        // Ids are assigned here so they can be reported without reading the orders back
+        order.setId(new ObjectId().toHexString());
+        order.setVersion(0L);
+        return order;
+    }
+
+    /**
+     * @param suppliedNumbers order numbers given in the upload, which unlike
+     *                        generated ones may clash with archived orders
+     */
+    private void insertBatch(List<Order> batch, List<OrderImportResult> batchResults, Set<String> suppliedNumbers) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // The unique index only covers the hot collection, so archived numbers are checked in one query
+        Set<String> archived = suppliedNumbers.isEmpty() ? Set.of()
+                : orderArchiveService.archivedOrderNumbers(suppliedNumbers);
+        List<Order> orders = new ArrayList<>(batch.size());
+        List<OrderImportResult> results = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            OrderImportResult result = batchResults.get(i);
+            if (archived.contains(batch.get(i).getOrderNumber())) {
+                result.setId(null);
+                result.setStatus(STATUS_DUPLICATE);
+                result.setError("Order number already exists: " + result.getOrderNumber());
+            } else {
+                orders.add(batch.get(i));
+                results.add(result);
+            }
+        }
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        results.forEach(result -> result.setStatus(STATUS_CREATED));
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)
+                    .insert(orders)
+                    .execute();
+        } catch (BulkOperationException e) {
+            // Unordered: every other insert in the batch was still applied
+            for (BulkWriteError error : e.getErrors()) {
+                OrderImportResult result = results.get(error.getIndex());
+                result.setId(null);
+                if (error.getCode() == DUPLICATE_KEY_ERROR) {
+                    result.setStatus(STATUS_DUPLICATE);
+                    result.setError("Order number already exists: " + result.getOrderNumber());
+                } else {
+                    result.setStatus(STATUS_FAILED);
+                    result.setError(error.getMessage());
+                }
+            }
+        } catch (DataAccessException e) {
+            log.error("Failed to insert order import batch: {}", e.getMessage());
+            for (OrderImportResult result : results) {
+                result.setId(null);
+                result.setStatus(STATUS_FAILED);
+                result.setError(e.getMessage());
+            }
+        }
+
+        List<Order> created = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            if (STATUS_CREATED.equals(results.get(i).getStatus())) {
+                created.add(orders.get(i));
+            }
+        }
+        customerOrderSummaryService.ordersCreated(created);
+    }
+
+    private static long count(List<OrderImportResult> results, String status) {
+        return results.stream().filter(result -> status.equals(result.getStatus())).count();
+    }
+}
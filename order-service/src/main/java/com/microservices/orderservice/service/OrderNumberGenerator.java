@@ -0,0 +1,22 @@
+package com.microservices.orderservice.service;
+
+/**
+ * Source of order numbers for new orders. Implementations must hand out unique
+ * numbers without a per-order database check; the unique orderNumber index
+ * remains the final guard.
+ */
+public interface OrderNumberGenerator {
+
+    String PREFIX = "ORD-";
+
+    String next();
+
+    /**
+     * Renders a non-negative id as the prefix followed by 13 zero-padded base 36
+     * digits, so numbers of the same generator sort like their ids.
+     */
+    static String format(long id) {
+        String digits = Long.toString(id, 36).toUpperCase();
+        return PREFIX + "0".repeat(13 - digits.length()) + digits;
+    }
+}
@@ -0,0 +1,101 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.Order;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Computes item subtotals and the order total.
+ *
+ * <p>The fast path works on unscaled longs: a subtotal is the price's unscaled
+ * value times the quantity at the price's scale, and the total is the sum of
+ * the subtotals rescaled to the largest scale. This gives exactly the values
+ * and scales of {@code price.multiply(BigDecimal.valueOf(quantity))} summed
+ * from {@code BigDecimal.ZERO}, allocating only the unscaled value of each
+ * price and the results instead of a BigDecimal per quantity, product and
+ * partial sum. If anything overflows a long the order is priced with
+ * BigDecimal instead.
+ *
+ * <p>OrderPricingTest checks the equivalence and OrderPricingBenchmark
+ * compares both against the previous stream pipeline.
+ */
+final class OrderPricing {
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L,
+            100_000_000_000_000L, 1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L,
+            1_000_000_000_000_000_000L };
+
+    private OrderPricing() {
+    }
+
+    /**
+     * Sets each item's subtotal and the order total. Orders without items are
+     * left unchanged.
+     */
+    static void price(Order order) {
+        List<Order.OrderItem> items = order.getItems();
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        for (Order.OrderItem item : items) {
+            if (item.getPrice() == null || item.getQuantity() == null) {
+                throw new RuntimeException("Every order item needs a price and a quantity");
+            }
+        }
+
+        if (!priceScaled(order, items)) {
+            priceBigDecimal(order, items);
+        }
+    }
+
+    private static boolean priceScaled(Order order, List<Order.OrderItem> items) {
+        int size = items.size();
+        long[] subtotals = new long[size];
+        int totalScale = 0;
+
+        try {
+            for (int i = 0; i < size; i++) {
+                BigDecimal price = items.get(i).getPrice();
+                BigInteger unscaled = price.unscaledValue();
+                // bitLength < 64 means the unscaled value fits in a long
+                if (unscaled.bitLength() >= Long.SIZE) {
+                    return false;
+                }
+                subtotals[i] = Math.multiplyExact(unscaled.longValue(), items.get(i).getQuantity());
+                totalScale = Math.max(totalScale, price.scale());
+            }
+
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                int shift = totalScale - items.get(i).getPrice().scale();
+                if (shift >= POWERS_OF_TEN.length) {
+                    return false;
+                }
+                total = Math.addExact(total, Math.multiplyExact(subtotals[i], POWERS_OF_TEN[shift]));
+            }
+
+            for (int i = 0; i < size; i++) {
+                items.get(i).setSubtotal(BigDecimal.valueOf(subtotals[i], items.get(i).getPrice().scale()));
+            }
+            order.setTotalAmount(BigDecimal.valueOf(total, totalScale));
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private static void priceBigDecimal(Order order, List<Order.OrderItem> items) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Order.OrderItem item : items) {
+            BigDecimal subtotal = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            item.setSubtotal(subtotal);
+            total = total.add(subtotal);
+        }
+        order.setTotalAmount(total);
+    }
+}
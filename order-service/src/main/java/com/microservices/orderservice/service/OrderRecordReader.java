@@ -0,0 +1,23 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.Order;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads orders one record at a time from an uploaded import file.
+ */
+interface OrderRecordReader extends Closeable {
+
+    /**
+     * @return the next record, or {@code null} at the end of the input
+     */
+    OrderRecord next() throws IOException;
+
+    /**
+     * A parsed order, or the reason the record could not be parsed.
+     */
+    record OrderRecord(long line, String orderNumber, Order order, String error) {
+    }
+}
@@ -0,0 +1,177 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.Order;
+import com.microservices.orderservice.model.OrderPage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Order search for support staff. Queries that look like an order number are
+ * matched as a prefix on the unique orderNumber index and paged by order
+ * number. Anything else is matched against customer name, email and product
+ * names in one of two modes:
+ * <ul>
+ * <li>{@code prefix} (default): every query word must start a word of those
+ * fields, so "jo sm" finds John Smith. Matched with anchored regexes on the
+ * indexed, normalized {@link Order#getSearchTerms()}, newest first and paged
+ * by id.</li>
+ * <li>{@code text}: a $text search for whole words, ranked by relevance.</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderSearchService {
+
+    public static final String MATCH_PREFIX = "prefix";
+    public static final String MATCH_TEXT = "text";
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    // Text search pages by offset, so results are capped to keep skips cheap
+    private static final int MAX_TEXT_RESULTS = 1000;
+
+    private static final Pattern ORDER_NUMBER_PREFIX = Pattern.compile(
+            Pattern.quote(OrderNumberGenerator.PREFIX) + "[A-Z0-9-]*", Pattern.CASE_INSENSITIVE);
+
+    private final CausalSessions causalSessions;
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Fills in search terms of orders written before they were maintained.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSearchTerms() {
+        Query missing = Query.query(Criteria.where("searchTerms").exists(false)).limit(BACKFILL_BATCH_SIZE);
+        missing.fields().include("customerName", "customerEmail", "items.productName");
+
+        long updated = 0;
+        List<Order> batch;
+        while (!(batch = mongoTemplate.find(missing, Order.class)).isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+            for (Order order : batch) {
+                bulk.updateOne(Query.query(Criteria.where("_id").is(order.getId())),
+                        Update.update("searchTerms", OrderSearchTerms.terms(order)));
+            }
+            updated += bulk.execute().getModifiedCount();
+        }
+        if (updated > 0) {
+            log.info("Backfilled search terms of {} orders", updated);
+        }
+    }
+
+    /**
+     * @param match  {@link #MATCH_PREFIX} or {@link #MATCH_TEXT}; ignored for order number queries
+     * @param cursor the last order number of the previous page for order number
+     *               searches, the last order id for prefix searches, or the
+     *               result offset for text searches
+     */
+    public OrderPage search(String text, String match, String status, String cursor, int limit) {
+        log.info("Searching orders - Query: {}, Match: {}, Status: {}", text, match, status);
+
+        if (!StringUtils.hasText(text)) {
+            throw new RuntimeException("Search query is required");
+        }
+
+        String query = text.trim();
+        int pageSize = OrderService.pageSize(limit);
+        if (ORDER_NUMBER_PREFIX.matcher(query).matches()) {
+            List<Order> orders = causalSessions.reads()
+                    .find(orderNumberQuery(query, status, cursor, pageSize), Order.class);
+            return OrderService.toPage(orders, pageSize, Order::getOrderNumber);
+        }
+
+        if (MATCH_PREFIX.equals(match)) {
+            List<String> prefixes = OrderSearchTerms.prefixes(query);
+            if (prefixes.isEmpty()) {
+                throw new RuntimeException("Search query has no words");
+            }
+            List<Order> orders = causalSessions.reads()
+                    .find(prefixQuery(prefixes, status, cursor, pageSize), Order.class);
+            return OrderService.toPage(orders, pageSize);
+        }
+        if (!MATCH_TEXT.equals(match)) {
+            throw new RuntimeException("Unknown search match: " + match);
+        }
+
+        int offset = offset(cursor);
+        List<Order> orders = causalSessions.reads().find(textQuery(query, status, offset, pageSize), Order.class);
+        String nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders = orders.subList(0, pageSize);
+            if (offset + pageSize < MAX_TEXT_RESULTS) {
+                nextCursor = String.valueOf(offset + pageSize);
+            }
+        }
+        return new OrderPage(orders, nextCursor);
+    }
+
+    /**
+     * Anchored, case-sensitive prefix regex, which Mongo turns into a range
+     * scan on the orderNumber index. Order numbers are stored upper case.
+     */
+    static Query orderNumberQuery(String prefix, String status, String cursor, int pageSize) {
+        Criteria orderNumber = Criteria.where("orderNumber").regex("^" + prefix.toUpperCase());
+        if (cursor != null) {
+            orderNumber = orderNumber.gt(cursor);
+        }
+
+        Query query = OrderService.filterQuery(status, null).addCriteria(orderNumber);
+        query.with(Sort.by(Sort.Direction.ASC, "orderNumber"));
+        query.limit(pageSize + 1);
+        return query;
+    }
+
+    /**
+     * One anchored regex per query word on the multikey searchTerms index, so
+     * every word has to start some word of the order.
+     */
+    static Query prefixQuery(List<String> prefixes, String status, String cursor, int pageSize) {
+        Criteria[] words = prefixes.stream()
+                .map(prefix -> Criteria.where("searchTerms").regex(OrderSearchTerms.prefixRegex(prefix)))
+                .toArray(Criteria[]::new);
+        return OrderService.pageQuery(status, null, cursor, pageSize).addCriteria(new Criteria().andOperator(words));
+    }
+
+    static Query textQuery(String terms, String status, int offset, int pageSize) {
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(terms))
+                .sortByScore()
+                .with(Sort.by(Sort.Direction.DESC, "_id"));
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+        query.skip(offset);
+        query.limit(pageSize + 1);
+        return query;
+    }
+
+    private static int offset(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            int offset = Integer.parseInt(cursor);
+            if (offset < 0 || offset >= MAX_TEXT_RESULTS) {
+                throw new NumberFormatException();
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid search cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.Order;
+import org.reactivestreams.Publisher;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeConvertCallback;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps {@link Order#getSearchTerms()} in line with the customer name, email
+ * and product names whenever an order is written through a template or
+ * repository. Terms are lower case without accents: every word, and the full
+ * email, so that an anchored regex on the indexed array finds orders by the
+ * start of any word.
+ */
+@Component
+public class OrderSearchTerms implements BeforeConvertCallback<Order>, ReactiveBeforeConvertCallback<Order> {
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern EDGE_PUNCTUATION = Pattern.compile("^[^\\p{L}\\p{N}]+|[^\\p{L}\\p{N}]+$");
+    private static final Pattern REGEX_SPECIAL = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+
+    @Override
+    public Order onBeforeConvert(Order order, String collection) {
+        order.setSearchTerms(terms(order));
+        return order;
+    }
+
+    @Override
+    public Publisher<Order> onBeforeConvert(Order order, String collection, boolean reactive) {
+        return Mono.just(onBeforeConvert(order, collection));
+    }
+
+    static List<String> terms(Order order) {
+        Set<String> terms = new LinkedHashSet<>();
+        addWords(terms, order.getCustomerName());
+        if (order.getCustomerEmail() != null && !order.getCustomerEmail().isBlank()) {
+            terms.add(normalize(order.getCustomerEmail()));
+            addWords(terms, order.getCustomerEmail());
+        }
+        if (order.getItems() != null) {
+            for (Order.OrderItem item : order.getItems()) {
+                addWords(terms, item.getProductName());
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * Splits a query into normalized prefixes, one per whitespace separated
+     * word, keeping emails and other punctuated words whole.
+     */
+    static List<String> prefixes(String query) {
+        List<String> prefixes = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            String prefix = EDGE_PUNCTUATION.matcher(normalize(word)).replaceAll("");
+            if (!prefix.isEmpty()) {
+                prefixes.add(prefix);
+            }
+        }
+        return prefixes;
+    }
+
+    /**
+     * An anchored regex for the prefix with metacharacters escaped, which Mongo
+     * answers with a range scan on the index.
+     */
+    static String prefixRegex(String prefix) {
+        return "^" + REGEX_SPECIAL.matcher(prefix).replaceAll("\\\\$0");
+    }
+
+    static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return ACCENTS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static void addWords(Set<String> terms, String value) {
+        if (value == null) {
+            return;
+        }
+        for (String word : WORD_SEPARATORS.split(normalize(value))) {
+            if (!word.isEmpty()) {
+                terms.add(word);
+            }
+        }
+    }
+}
@@ -1,93 +1,254 @@
 package com.microservices.orderservice.service;
 
 import com.microservices.orderservice.model.Order;
-import com.microservices.orderservice.repository.OrderRepository;
+import com.microservices.orderservice.model.OrderPage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderService {
 
-    private final OrderRepository orderRepository;
+    private static final int MAX_PAGE_SIZE = 200;
+    static final int MAX_ORDER_NUMBER_ATTEMPTS = 3;
 
-    public List<Order> getAllOrders() {
-        log.info("Fetching all orders");
-        return orderRepository.findAll();
+    // Allowed status changes; DELIVERED and CANCELLED are final
+    private static final Map<String, Set<String>> STATUS_TRANSITIONS = Map.of(
+            "PENDING", Set.of("CONFIRMED", "CANCELLED"),
+            "CONFIRMED", Set.of("SHIPPED", "CANCELLED"),
+            "SHIPPED", Set.of("DELIVERED"));
+
+    private final MongoTemplate mongoTemplate;
+    private final CausalSessions causalSessions;
+    private final CustomerOrderSummaryService customerOrderSummaryService;
+    private final OrderArchiveService orderArchiveService;
+    private final OrderNumberGenerator orderNumberGenerator;
+
+    /**
+     * Returns one page of orders, newest first. Paging is keyset based on _id,
+     * so each page is an index range scan no matter how deep the client goes.
+     * The cursor is the id of the last order on the previous page.
+     */
+    public OrderPage getOrders(String status, String customerId, String cursor, int limit) {
+        log.info("Fetching orders page - Status: {}, Customer: {}", status, customerId);
+
+        int pageSize = pageSize(limit);
+        return toPage(causalSessions.reads().find(pageQuery(status, customerId, cursor, pageSize), Order.class),
+                pageSize);
+    }
+
+    /**
+     * Passes every matching order to the consumer while reading from a Mongo
+     * cursor, so the result set is never held in memory.
+     */
+    public void streamOrders(String status, String customerId, Consumer<Order> consumer) {
+        log.info("Streaming orders - Status: {}, Customer: {}", status, customerId);
+
+        Query query = filterQuery(status, customerId).with(Sort.by(Sort.Direction.DESC, "_id"));
+        try (Stream<Order> orders = causalSessions.reads().stream(query, Order.class)) {
+            orders.forEach(consumer);
+        }
     }
 
+    static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Fetches one more order than the page size, so {@link #toPage} can tell
+     * whether another page follows.
+     */
+    static Query pageQuery(String status, String customerId, String cursor, int pageSize) {
+        Query query = filterQuery(status, customerId);
+        if (cursor != null) {
+            if (!ObjectId.isValid(cursor)) {
+                throw new RuntimeException("Invalid order cursor: " + cursor);
+            }
+            query.addCriteria(Criteria.where("_id").lt(new ObjectId(cursor)));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "_id"));
+        query.limit(pageSize + 1);
+        return query;
+    }
+
+    static OrderPage toPage(List<Order> orders, int pageSize) {
+        return toPage(orders, pageSize, Order::getId);
+    }
+
+    static OrderPage toPage(List<Order> orders, int pageSize, Function<Order, String> cursorOf) {
+        String nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders = orders.subList(0, pageSize);
+            nextCursor = cursorOf.apply(orders.get(pageSize - 1));
+        }
+        return new OrderPage(orders, nextCursor);
+    }
+
+    static Query filterQuery(String status, String customerId) {
+        Query query = new Query();
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+        if (customerId != null) {
+            query.addCriteria(Criteria.where("customerId").is(customerId));
+        }
+        return query;
+    }
+
+    /**
+     * Looks in the hot collection first and falls through to the archive.
+     */
     public Optional<Order> getOrderById(String id) {
         log.info("Fetching order by id: {}", id);
-        return orderRepository.findById(id);
+        return Optional.ofNullable(causalSessions.reads().findById(id, Order.class))
+                .or(() -> orderArchiveService.findById(id));
     }
 
     public Optional<Order> getOrderByOrderNumber(String orderNumber) {
         log.info("Fetching order by order number: {}", orderNumber);
-        return orderRepository.findByOrderNumber(orderNumber);
+        return Optional.ofNullable(causalSessions.reads().findOne(
+                        Query.query(Criteria.where("orderNumber").is(orderNumber)), Order.class))
+                .or(() -> orderArchiveService.findByOrderNumber(orderNumber));
     }
 
-    public List<Order> getOrdersByCustomerId(String customerId) {
-        log.info("Fetching orders for customer: {}", customerId);
-        return orderRepository.findByCustomerId(customerId);
-    }
+    public Order createOrder(Order order) {
+        log.info("Creating new order for customer: {}", order.getCustomerId());
 
-    public List<Order> getOrdersByStatus(String status) {
-        log.info("Fetching orders with status: {}", status);
-        return orderRepository.findByStatus(status);
+        boolean generatedNumber = prepareNewOrder(order, orderNumberGenerator);
+        // The unique index only covers the hot collection
+        if (!generatedNumber && orderArchiveService.containsOrderNumber(order.getOrderNumber())) {
+            throw new RuntimeException("Order number already exists: " + order.getOrderNumber());
+        }
+
+        // Uniqueness is enforced by the orderNumber index, so this is a single round trip; generated
+        // numbers are unique by construction and are only retried if node ids were misconfigured
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Order savedOrder = causalSessions.writes().insert(order);
+                customerOrderSummaryService.orderCreated(savedOrder);
+                return savedOrder;
+            } catch (DuplicateKeyException e) {
+                if (!generatedNumber || attempt >= MAX_ORDER_NUMBER_ATTEMPTS) {
+                    throw new RuntimeException("Order number already exists: " + order.getOrderNumber(), e);
+                }
+                log.warn("Generated order number {} already exists, retrying", order.getOrderNumber());
+                order.setOrderNumber(orderNumberGenerator.next());
+            }
+        }
     }
 
-    public Order createOrder(Order order) {
-        log.info("Creating new order for customer: {}", order.getCustomerId());
+    public Order updateOrder(String id, Order orderDetails) {
+        log.info("Updating order: {}", id);
 
-        if (order.getOrderNumber() == null || order.getOrderNumber().isEmpty()) {
-            order.setOrderNumber("ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        // Read from the primary, since the version check must see the latest write
+        Order order = findForWrite(id);
+        if (order.getVersion() == null) {
+            causalSessions.writes().updateFirst(initialVersionQuery(id), initialVersionUpdate(), Order.class);
+            order.setVersion(0L);
         }
 
-        if (orderRepository.existsByOrderNumber(order.getOrderNumber())) {
-            throw new RuntimeException("Order number already exists: " + order.getOrderNumber());
+        Order previous = applyUpdate(order, orderDetails);
+
+        Order savedOrder;
+        try {
+            savedOrder = causalSessions.writes().save(order);
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("Order number already exists: " + orderDetails.getOrderNumber(), e);
         }
 
-        if (order.getItems() != null && !order.getItems().isEmpty()) {
-            BigDecimal total = order.getItems().stream()
-                    .map(item -> {
-                        BigDecimal subtotal = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-                        item.setSubtotal(subtotal);
-                        return subtotal;
-                    })
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            order.setTotalAmount(total);
+        customerOrderSummaryService.orderUpdated(previous, savedOrder);
+        return savedOrder;
+    }
+
+    /**
+     * Moves an order to a new status with a single findAndModify. The filter only
+     * matches when the current status may transition to the requested one (and,
+     * if given, the version is unchanged), so concurrent changes cannot
+     * interleave. Only status, updatedAt and version are written.
+     *
+     * @return the updated order, without its items
+     */
+    public Order changeStatus(String id, String status, Long expectedVersion) {
+        log.info("Changing status of order {} to {}", id, status);
+
+        LocalDateTime now = LocalDateTime.now();
+        Order previous = causalSessions.writes().findAndModify(statusChangeQuery(id, status, expectedVersion),
+                statusChangeUpdate(status, now), Order.class);
+        if (previous == null) {
+            throw statusChangeRejected(findForWrite(id), status, expectedVersion);
         }
 
+        Order updated = statusChanged(previous, status, now);
+        customerOrderSummaryService.orderUpdated(previous, updated);
+        return updated;
+    }
+
+    /**
+     * Defaults the order number, status and timestamps of a new order and prices it.
+     *
+     * @return whether the order number was generated, and may be regenerated on a collision
+     */
+    static boolean prepareNewOrder(Order order, OrderNumberGenerator orderNumberGenerator) {
+        boolean generatedNumber = order.getOrderNumber() == null || order.getOrderNumber().isEmpty();
+        if (generatedNumber) {
+            order.setOrderNumber(orderNumberGenerator.next());
+        }
+
+        OrderPricing.price(order);
+
         order.setCreatedAt(LocalDateTime.now());
         order.setUpdatedAt(LocalDateTime.now());
 
         if (order.getStatus() == null || order.getStatus().isEmpty()) {
             order.setStatus("PENDING");
         }
-
-        return orderRepository.save(order);
+        return generatedNumber;
     }
 
-    public Order updateOrder(String id, Order orderDetails) {
-        log.info("Updating order: {}", id);
-
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+    /**
+     * Checks the version and status transition, then copies the editable fields
+     * of {@code orderDetails} onto {@code order} and reprices it.
+     *
+     * @return a copy of the order as it was before the update
+     */
+    static Order applyUpdate(Order order, Order orderDetails) {
+        if (orderDetails.getVersion() != null && !orderDetails.getVersion().equals(order.getVersion())) {
+            throw new OptimisticLockingFailureException("Order " + order.getId() + " was modified by someone else");
+        }
 
-        if (!order.getOrderNumber().equals(orderDetails.getOrderNumber()) &&
-                orderRepository.existsByOrderNumber(orderDetails.getOrderNumber())) {
-            throw new RuntimeException("Order number already exists: " + orderDetails.getOrderNumber());
+        if (!order.getStatus().equals(orderDetails.getStatus())
+                && !STATUS_TRANSITIONS.getOrDefault(order.getStatus(), Set.of()).contains(orderDetails.getStatus())) {
+            throw new IllegalStateException("Order " + order.getId() + " cannot move from " + order.getStatus()
+                    + " to " + orderDetails.getStatus());
         }
 
-        order.setOrderNumber(orderDetails.getOrderNumber());
+        Order previous = new Order();
+        BeanUtils.copyProperties(order, previous);
+
+        if (orderDetails.getOrderNumber() != null && !orderDetails.getOrderNumber().isEmpty()) {
+            order.setOrderNumber(orderDetails.getOrderNumber());
+        }
         order.setCustomerId(orderDetails.getCustomerId());
         order.setCustomerName(orderDetails.getCustomerName());
         order.setCustomerEmail(orderDetails.getCustomerEmail());
@@ -96,28 +257,92 @@ public class OrderService {
         order.setShippingAddress(orderDetails.getShippingAddress());
         order.setNotes(orderDetails.getNotes());
 
-        if (order.getItems() != null && !order.getItems().isEmpty()) {
-            BigDecimal total = order.getItems().stream()
-                    .map(item -> {
-                        BigDecimal subtotal = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-                        item.setSubtotal(subtotal);
-                        return subtotal;
-                    })
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            order.setTotalAmount(total);
-        }
+        OrderPricing.price(order);
 
         order.setUpdatedAt(LocalDateTime.now());
+        return previous;
+    }
+
+    static Query statusChangeQuery(String id, String status, Long expectedVersion) {
+        Set<String> fromStatuses = STATUS_TRANSITIONS.entrySet().stream()
+                .filter(entry -> entry.getValue().contains(status))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        if (fromStatuses.isEmpty()) {
+            throw new IllegalStateException("Orders cannot be moved to status " + status);
+        }
+
+        Criteria criteria = Criteria.where("_id").is(id).and("status").in(fromStatuses);
+        if (expectedVersion != null && expectedVersion == 0) {
+            criteria.orOperator(Criteria.where("version").is(0L), Criteria.where("version").exists(false));
+        } else if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        Query query = Query.query(criteria);
+        query.fields().exclude("items");
+        return query;
+    }
+
+    static Update statusChangeUpdate(String status, LocalDateTime now) {
+        return new Update()
+                .set("status", status)
+                .set("updatedAt", now)
+                .inc("version", 1);
+    }
+
+    /**
+     * Explains why the status change filter did not match the current order.
+     */
+    static RuntimeException statusChangeRejected(Order current, String status, Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != version(current)) {
+            return new OptimisticLockingFailureException("Order " + current.getId() + " was modified by someone else");
+        }
+        return new IllegalStateException("Order " + current.getId() + " cannot move from " + current.getStatus()
+                + " to " + status);
+    }
+
+    static Order statusChanged(Order previous, String status, LocalDateTime now) {
+        Order updated = new Order();
+        BeanUtils.copyProperties(previous, updated);
+        updated.setStatus(status);
+        updated.setUpdatedAt(now);
+        updated.setVersion(version(previous) + 1);
+        return updated;
+    }
 
-        return orderRepository.save(order);
+    /**
+     * Orders written before versioning was introduced have no version field;
+     * they count as version 0, and $inc starts them at 1.
+     */
+    static long version(Order order) {
+        return order.getVersion() != null ? order.getVersion() : 0;
+    }
+
+    /**
+     * Matches the order only while it has no version. Saving an order without a
+     * version would insert it as new, so updates first set it to 0 with this.
+     */
+    static Query initialVersionQuery(String id) {
+        return Query.query(Criteria.where("_id").is(id).and("version").exists(false));
+    }
+
+    static Update initialVersionUpdate() {
+        return new Update().set("version", 0L);
     }
 
     public void deleteOrder(String id) {
         log.info("Deleting order: {}", id);
 
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+        Order order = findForWrite(id);
 
-        orderRepository.delete(order);
+        if (causalSessions.writes().remove(order).getDeletedCount() == 0) {
+            throw new OptimisticLockingFailureException("Order " + id + " was modified by someone else");
+        }
+        customerOrderSummaryService.orderDeleted(order);
+    }
+
+    private Order findForWrite(String id) {
+        return Optional.ofNullable(causalSessions.writes().findById(id, Order.class))
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
     }
 }
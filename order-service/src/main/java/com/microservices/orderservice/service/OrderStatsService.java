@@ -0,0 +1,127 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.Order;
+import com.microservices.orderservice.model.OrderStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Order analytics computed inside Mongo in a single aggregation over the hot
+ * and archived orders: the date range is matched on the createdAt indexes and
+ * the groupings run as parallel $facet branches, so only the aggregated
+ * figures leave the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStatsService {
+
+    private static final int MAX_TOP_CUSTOMERS = 100;
+
+    private final CausalSessions causalSessions;
+
+    /**
+     * @param from first day to include, or {@code null} for no lower bound
+     * @param to last day to include, or {@code null} for no upper bound
+     */
+    public OrderStats getStats(LocalDate from, LocalDate to, int topCustomers) {
+        log.info("Computing order stats - From: {}, To: {}", from, to);
+
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new RuntimeException("Invalid date range: " + from + " is after " + to);
+        }
+
+        List<AggregationOperation> stages = new ArrayList<>();
+        Criteria range = Criteria.where("createdAt");
+        if (from != null) {
+            range = range.gte(from.atStartOfDay());
+        }
+        if (to != null) {
+            range = range.lt(to.plusDays(1).atStartOfDay());
+        }
+        // Archived orders are included, each collection matched on its own createdAt index
+        UnionWithOperation archive = UnionWithOperation.unionWith(OrderArchiveService.ARCHIVE_COLLECTION);
+        if (from != null || to != null) {
+            stages.add(Aggregation.match(range));
+            archive = archive.pipeline(Aggregation.match(range));
+        }
+        stages.add(archive);
+
+        // Amounts are stored as strings, so they are converted once before any grouping
+        stages.add(Aggregation.project("status", "customerId", "customerName")
+                .and(ConvertOperators.valueOf("totalAmount").convertToDecimal()).as("amount")
+                .and(DateOperators.dateOf("createdAt")
+                        .withTimezone(DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId()))
+                        .toString("%Y-%m-%d")).as("day"));
+
+        stages.add(Aggregation
+                .facet(Aggregation.group().count().as("orders").sum("amount").as("revenue"))
+                .as("totals")
+                .and(Aggregation.group("status").count().as("orders").sum("amount").as("revenue"),
+                        Aggregation.sort(Sort.Direction.ASC, "_id"))
+                .as("byStatus")
+                .and(Aggregation.group("day").count().as("orders").sum("amount").as("revenue"),
+                        Aggregation.sort(Sort.Direction.ASC, "_id"))
+                .as("byDay")
+                .and(Aggregation.group("customerId").count().as("orders").sum("amount").as("revenue")
+                                .last("customerName").as("customerName"),
+                        Aggregation.sort(Sort.Direction.DESC, "revenue"),
+                        Aggregation.limit(Math.max(1, Math.min(topCustomers, MAX_TOP_CUSTOMERS))))
+                .as("topCustomers"));
+
+        Document result = causalSessions.reads()
+                .aggregate(Aggregation.newAggregation(stages), Order.class, Document.class)
+                .getUniqueMappedResult();
+        return toStats(result);
+    }
+
+    private static OrderStats toStats(Document result) {
+        OrderStats stats = new OrderStats(0, BigDecimal.ZERO, List.of(), List.of(), List.of());
+        if (result == null) {
+            return stats;
+        }
+
+        List<Document> totals = result.getList("totals", Document.class);
+        if (!totals.isEmpty()) {
+            stats.setTotalOrders(count(totals.get(0)));
+            stats.setTotalRevenue(revenue(totals.get(0)));
+        }
+
+        stats.setByStatus(result.getList("byStatus", Document.class).stream()
+                .map(bucket -> new OrderStats.Bucket(bucket.getString("_id"), count(bucket), revenue(bucket)))
+                .toList());
+        stats.setByDay(result.getList("byDay", Document.class).stream()
+                .map(bucket -> new OrderStats.Bucket(bucket.getString("_id"), count(bucket), revenue(bucket)))
+                .toList());
+        stats.setTopCustomers(result.getList("topCustomers", Document.class).stream()
+                .map(customer -> new OrderStats.CustomerStats(customer.getString("_id"),
+                        customer.getString("customerName"), count(customer), revenue(customer)))
+                .toList());
+        return stats;
+    }
+
+    private static long count(Document bucket) {
+        return ((Number) bucket.get("orders")).longValue();
+    }
+
+    private static BigDecimal revenue(Document bucket) {
+        Object revenue = bucket.get("revenue");
+        return revenue instanceof Decimal128 decimal ? decimal.bigDecimalValue() : BigDecimal.ZERO;
+    }
+}
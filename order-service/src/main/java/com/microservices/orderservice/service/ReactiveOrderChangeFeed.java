@@ -0,0 +1,143 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.Order;
+import com.microservices.orderservice.model.OrderChangeEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Reactive counterpart of {@link OrderChangeFeed}: one shared change stream
+ * per instance fanned out to per-client sinks, with replay of recent changes
+ * for reconnecting clients and a dedicated resumed stream for clients further
+ * behind until they catch up. A client whose sink overflows is disconnected
+ * and resumes on reconnect.
+ */
+@Service
+@Profile("reactive")
+@Slf4j
+public class ReactiveOrderChangeFeed {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final long heartbeatInterval;
+    private final int replaySize;
+    private final OrderChangeFanOut<Sinks.Many<ServerSentEvent<OrderChangeEvent>>> fanOut;
+    private Disposable shared = Disposables.disposed();
+
+    public ReactiveOrderChangeFeed(ReactiveMongoTemplate reactiveMongoTemplate,
+            @Value("${order.changes.heartbeat-interval:15000}") long heartbeatInterval,
+            @Value("${order.changes.replay-size:1000}") int replaySize) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.heartbeatInterval = heartbeatInterval;
+        this.replaySize = replaySize;
+        this.fanOut = new OrderChangeFanOut<>(replaySize);
+    }
+
+    /**
+     * Starts the shared stream. When it fails its clients are disconnected and
+     * it starts over from the current position; the clients reconnect with
+     * their last event id and catch up on their own streams.
+     */
+    @PostConstruct
+    public void start() {
+        shared = listen(null)
+                .doOnError(e -> {
+                    log.warn("Shared order change stream failed: {}", e.getMessage());
+                    fanOut.reset().forEach(Sinks.Many::tryEmitComplete);
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofMillis(heartbeatInterval)))
+                .subscribe(change -> fanOut.publish(change).forEach(sink -> emit(sink, change)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shared.dispose();
+        fanOut.reset().forEach(Sinks.Many::tryEmitComplete);
+    }
+
+    /**
+     * Order changes as Server-Sent Events, resumed after the given event id
+     * when present. Ends with a {@code reset} event if the stream cannot be
+     * resumed, and is interleaved with keepalive comments while idle.
+     */
+    public Flux<ServerSentEvent<OrderChangeEvent>> changes(String lastEventId) {
+        return Flux.defer(() -> {
+            Sinks.Many<ServerSentEvent<OrderChangeEvent>> sink = Sinks.many().unicast()
+                    .onBackpressureBuffer(Queues.<ServerSentEvent<OrderChangeEvent>>get(replaySize).get());
+            String lastId = StringUtils.hasText(lastEventId) ? lastEventId : null;
+            boolean joined = fanOut.join(sink, lastId, missed -> missed.forEach(change -> emit(sink, change)));
+            log.info("Subscribing to order changes, resuming: {}, catching up: {}", lastId != null, !joined);
+            Disposable catchUp = joined ? Disposables.disposed() : catchUp(sink, lastId);
+
+            Sinks.Empty<Void> done = Sinks.empty();
+            Flux<ServerSentEvent<OrderChangeEvent>> changes = sink.asFlux().doOnTerminate(done::tryEmitEmpty);
+            Flux<ServerSentEvent<OrderChangeEvent>> heartbeat = Flux.interval(Duration.ofMillis(heartbeatInterval))
+                    .map(tick -> ServerSentEvent.<OrderChangeEvent>builder().comment("keepalive").build())
+                    .takeUntilOther(done.asMono());
+
+            return Flux.merge(changes, heartbeat)
+                    .doFinally(signal -> {
+                        fanOut.leave(sink);
+                        catchUp.dispose();
+                    });
+        });
+    }
+
+    /**
+     * Streams from the client's resume token until a change the shared stream
+     * has seen, then hands the client over to it.
+     */
+    private Disposable catchUp(Sinks.Many<ServerSentEvent<OrderChangeEvent>> sink, String lastId) {
+        return listen(OrderChangeFeed.resumeToken(lastId))
+                .doOnNext(change -> emit(sink, change))
+                .takeUntil(change -> fanOut.join(sink, change.id(),
+                        missed -> missed.forEach(next -> emit(sink, next))))
+                .subscribe(change -> {
+                }, e -> {
+                    log.warn("Order change stream failed: {}", e.getMessage());
+                    sink.tryEmitNext(ServerSentEvent.<OrderChangeEvent>builder()
+                            .event(OrderChangeFeed.RESET_EVENT)
+                            .build());
+                    sink.tryEmitComplete();
+                });
+    }
+
+    private Flux<OrderChangeFanOut.Change> listen(BsonDocument resumeToken) {
+        return reactiveMongoTemplate.changeStream(Order.class)
+                .watchCollection(OrderChangeFeed.ORDERS_COLLECTION)
+                .withOptions(options -> {
+                    options.filter(OrderChangeFeed.operationFilter()).returnFullDocumentOnUpdate();
+                    if (resumeToken != null) {
+                        options.resumeToken(resumeToken);
+                    }
+                })
+                .listen()
+                .map(event -> OrderChangeFeed.toChange(event.getRaw(), event.getBody()));
+    }
+
+    private static void emit(Sinks.Many<ServerSentEvent<OrderChangeEvent>> sink, OrderChangeFanOut.Change change) {
+        ServerSentEvent<OrderChangeEvent> event = ServerSentEvent.builder(change.event())
+                .id(change.id())
+                .event(OrderChangeFeed.CHANGE_EVENT)
+                .build();
+        if (sink.tryEmitNext(event).isFailure()) {
+            sink.tryEmitComplete();
+        }
+    }
+}
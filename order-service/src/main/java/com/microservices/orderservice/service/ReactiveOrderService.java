@@ -0,0 +1,160 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.Order;
+import com.microservices.orderservice.model.OrderPage;
+import com.microservices.orderservice.repository.ReactiveOrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking counterpart of {@link OrderService} for the reactive profile.
+ * Validation, pricing and the status rules are shared with the servlet
+ * version; only the Mongo access differs. Customer summaries are still
+ * maintained by the blocking {@link CustomerOrderSummaryService}, offloaded to
+ * the bounded elastic scheduler.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveOrderService {
+
+    private final ReactiveOrderRepository reactiveOrderRepository;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final CustomerOrderSummaryService customerOrderSummaryService;
+    private final OrderNumberGenerator orderNumberGenerator;
+
+    public Mono<OrderPage> getOrders(String status, String customerId, String cursor, int limit) {
+        log.info("Fetching orders page - Status: {}, Customer: {}", status, customerId);
+
+        int pageSize = OrderService.pageSize(limit);
+        return Mono.fromCallable(() -> OrderService.pageQuery(status, customerId, cursor, pageSize))
+                .flatMap(query -> reactiveMongoTemplate.find(query, Order.class).collectList())
+                .map(orders -> OrderService.toPage(orders, pageSize));
+    }
+
+    /**
+     * Emits every matching order as the subscriber requests it; the driver
+     * fetches further cursor batches only as demand arrives.
+     */
+    public Flux<Order> streamOrders(String status, String customerId) {
+        log.info("Streaming orders - Status: {}, Customer: {}", status, customerId);
+
+        Query query = OrderService.filterQuery(status, customerId).with(Sort.by(Sort.Direction.DESC, "_id"));
+        return reactiveMongoTemplate.find(query, Order.class);
+    }
+
+    public Mono<Order> getOrderById(String id) {
+        log.info("Fetching order by id: {}", id);
+        return reactiveOrderRepository.findById(id)
+                .switchIfEmpty(Mono.defer(() -> reactiveMongoTemplate.findById(id, Order.class,
+                        OrderArchiveService.ARCHIVE_COLLECTION)));
+    }
+
+    public Mono<Order> getOrderByOrderNumber(String orderNumber) {
+        log.info("Fetching order by order number: {}", orderNumber);
+        return reactiveOrderRepository.findByOrderNumber(orderNumber)
+                .switchIfEmpty(Mono.defer(() -> reactiveMongoTemplate.findOne(
+                        OrderArchiveService.orderNumberQuery(orderNumber), Order.class,
+                        OrderArchiveService.ARCHIVE_COLLECTION)));
+    }
+
+    public Mono<Order> createOrder(Order order) {
+        log.info("Creating new order for customer: {}", order.getCustomerId());
+
+        return Mono.fromCallable(() -> OrderService.prepareNewOrder(order, orderNumberGenerator))
+                .flatMap(generatedNumber -> generatedNumber ? Mono.just(true) : reactiveMongoTemplate
+                        .exists(OrderArchiveService.orderNumberQuery(order.getOrderNumber()),
+                                OrderArchiveService.ARCHIVE_COLLECTION)
+                        .flatMap(archived -> archived
+                                ? Mono.<Boolean>error(new DuplicateKeyException("Order number is archived"))
+                                : Mono.just(false)))
+                .flatMap(generatedNumber -> Mono.defer(() -> reactiveOrderRepository.insert(order))
+                        .retryWhen(Retry.max(OrderService.MAX_ORDER_NUMBER_ATTEMPTS - 1)
+                                .filter(e -> generatedNumber && e instanceof DuplicateKeyException)
+                                .doBeforeRetry(signal -> {
+                                    log.warn("Generated order number {} already exists, retrying",
+                                            order.getOrderNumber());
+                                    order.setOrderNumber(orderNumberGenerator.next());
+                                })
+                                .onRetryExhaustedThrow((spec, signal) -> signal.failure())))
+                .onErrorMap(DuplicateKeyException.class,
+                        e -> new RuntimeException("Order number already exists: " + order.getOrderNumber(), e))
+                .flatMap(savedOrder -> updateSummary(() -> customerOrderSummaryService.orderCreated(savedOrder))
+                        .thenReturn(savedOrder));
+    }
+
+    public Mono<Order> updateOrder(String id, Order orderDetails) {
+        log.info("Updating order: {}", id);
+
+        return findExisting(id)
+                .flatMap(this::initializeVersion)
+                .flatMap(order -> {
+                    Order previous = OrderService.applyUpdate(order, orderDetails);
+                    return reactiveOrderRepository.save(order)
+                            .onErrorMap(DuplicateKeyException.class, e -> new RuntimeException(
+                                    "Order number already exists: " + orderDetails.getOrderNumber(), e))
+                            .flatMap(savedOrder -> updateSummary(
+                                    () -> customerOrderSummaryService.orderUpdated(previous, savedOrder))
+                                    .thenReturn(savedOrder));
+                });
+    }
+
+    public Mono<Order> changeStatus(String id, String status, Long expectedVersion) {
+        log.info("Changing status of order {} to {}", id, status);
+
+        LocalDateTime now = LocalDateTime.now();
+        return Mono.fromCallable(() -> OrderService.statusChangeQuery(id, status, expectedVersion))
+                .flatMap(query -> reactiveMongoTemplate.findAndModify(query,
+                        OrderService.statusChangeUpdate(status, now), Order.class))
+                .switchIfEmpty(Mono.defer(() -> findExisting(id)
+                        .flatMap(current -> Mono.<Order>error(
+                                OrderService.statusChangeRejected(current, status, expectedVersion)))))
+                .flatMap(previous -> {
+                    Order updated = OrderService.statusChanged(previous, status, now);
+                    return updateSummary(() -> customerOrderSummaryService.orderUpdated(previous, updated))
+                            .thenReturn(updated);
+                });
+    }
+
+    public Mono<Void> deleteOrder(String id) {
+        log.info("Deleting order: {}", id);
+
+        return findExisting(id)
+                .flatMap(order -> reactiveOrderRepository.delete(order)
+                        .then(updateSummary(() -> customerOrderSummaryService.orderDeleted(order))));
+    }
+
+    private Mono<Order> findExisting(String id) {
+        return reactiveOrderRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Order not found with id: " + id)));
+    }
+
+    private Mono<Order> initializeVersion(Order order) {
+        if (order.getVersion() != null) {
+            return Mono.just(order);
+        }
+        return reactiveMongoTemplate.updateFirst(OrderService.initialVersionQuery(order.getId()),
+                        OrderService.initialVersionUpdate(), Order.class)
+                .then(Mono.fromSupplier(() -> {
+                    order.setVersion(0L);
+                    return order;
+                }));
+    }
+
+    private static Mono<Void> updateSummary(Runnable update) {
+        return Mono.fromRunnable(update).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+}
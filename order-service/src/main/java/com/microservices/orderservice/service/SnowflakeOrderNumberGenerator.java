@@ -0,0 +1,80 @@
+package com.microservices.orderservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style order numbers: 41 bits of milliseconds since 2024-01-01,
+ * a 10-bit node id and a 12-bit per-millisecond sequence, so that numbers
+ * sort by creation time.
+ * <p>
+ * The clock and sequence are packed into a single {@link AtomicLong} and
+ * advanced with compare-and-set, so concurrent callers never block. When the
+ * sequence of a millisecond is exhausted, or the wall clock moves backwards,
+ * the generator keeps counting from its last value instead of waiting, which
+ * keeps numbers unique and increasing at the cost of briefly running ahead of
+ * the clock.
+ */
+@Component
+@ConditionalOnProperty(name = "order.numbers.generator", havingValue = "snowflake", matchIfMissing = true)
+@Slf4j
+public class SnowflakeOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+
+    // Milliseconds since the epoch, shifted left by SEQUENCE_BITS, plus the sequence
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeOrderNumberGenerator(@Value("${order.numbers.node-id:-1}") long nodeId) {
+        if (nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Order number node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId >= 0 ? nodeId : hostNodeId();
+        log.info("Snowflake order numbers use node id {}", this.nodeId);
+    }
+
+    @Override
+    public String next() {
+        long next;
+        while (true) {
+            long current = state.get();
+            long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+            next = now > current ? now : current + 1;
+            if (state.compareAndSet(current, next)) {
+                break;
+            }
+        }
+
+        long millis = next >>> SEQUENCE_BITS;
+        long id = (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+        return OrderNumberGenerator.format(id);
+    }
+
+    /**
+     * Falls back to a hash of the host name, which is unique enough for a
+     * handful of instances but should be replaced by an explicit node id when
+     * running many.
+     */
+    private static long hostNodeId() {
+        try {
+            String host = InetAddress.getLocalHost().getHostName();
+            log.warn("No order number node id configured, deriving one from host name {}", host);
+            return host.hashCode() & MAX_NODE_ID;
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Cannot derive an order number node id, set order.numbers.node-id", e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.microservices.orderservice;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test against a running order-service: each connection
+ * sends a GET, waits for the response and sends the next one, and the driver
+ * reports throughput and latency percentiles per connection count. Run it
+ * once against the default (servlet) profile and once with
+ * SPRING_PROFILES_ACTIVE=reactive, with the same arguments:
+ * <pre>
+ * ORDER_LOAD_TOKEN=&lt;access token&gt; mvn -Pload-test test \
+ *     -Dload.url=http://localhost:8082/api/orders?limit=20 -Dload.connections=50,200,1000 -Dload.seconds=30
+ * </pre>
+ */
+public final class OrderLoadDriver {
+
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+
+    private OrderLoadDriver() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: OrderLoadDriver <url> [connections,...] [seconds]");
+            System.exit(2);
+        }
+        URI url = URI.create(args[0]);
+        int[] levels = Arrays.stream((args.length > 1 ? args[1] : "50,200,1000").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim()))
+                .toArray();
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(url).timeout(Duration.ofSeconds(30)).GET();
+        String token = System.getenv("ORDER_LOAD_TOKEN");
+        if (token != null && !token.isBlank()) {
+            request.header("Authorization", "Bearer " + token);
+        }
+
+        // HTTP/1.1 so that every in-flight request holds its own connection
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        System.out.printf("%s for %ds per level%n", url, duration.toSeconds());
+        System.out.printf("%11s %10s %9s %9s %9s %9s%n",
+                "connections", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (int connections : levels) {
+            run(client, request.build(), connections, WARMUP);
+            Result result = run(client, request.build(), connections, duration);
+            System.out.printf("%11d %10.1f %9.1f %9.1f %9.1f %9d%n", connections,
+                    result.latencies.length / (duration.toNanos() / 1e9),
+                    millis(result.percentile(0.50)), millis(result.percentile(0.99)),
+                    millis(result.percentile(1.0)), result.errors);
+        }
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, int connections, Duration duration)
+            throws InterruptedException {
+        long end = System.nanoTime() + duration.toNanos();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        LongAdder errors = new LongAdder();
+        CountDownLatch done = new CountDownLatch(connections);
+
+        for (int i = 0; i < connections; i++) {
+            send(client, request, end, latencies, errors, done);
+        }
+        done.await();
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new Result(sorted, errors.sum());
+    }
+
+    private static void send(HttpClient client, HttpRequest request, long end,
+            ConcurrentLinkedQueue<Long> latencies, LongAdder errors, CountDownLatch done) {
+        long start = System.nanoTime();
+        if (start >= end) {
+            done.countDown();
+            return;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error != null || response.statusCode() >= 400) {
+                errors.increment();
+            } else {
+                latencies.add(System.nanoTime() - start);
+            }
+            send(client, request, end, latencies, errors, done);
+        });
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private record Result(long[] latencies, long errors) {
+
+        long percentile(double p) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * latencies.length) - 1;
+            return latencies[Math.max(index, 0)];
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.OrderChangeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderChangeFanOutTest {
+
+    private final OrderChangeFanOut<String> fanOut = new OrderChangeFanOut<>(3);
+
+    @Test
+    void publishesToJoinedClients() {
+        fanOut.join("a", null, missed -> {
+            throw new AssertionError("nothing to replay");
+        });
+
+        assertThat(fanOut.publish(change("1"))).containsExactly("a");
+        fanOut.leave("a");
+        assertThat(fanOut.publish(change("2"))).isEmpty();
+    }
+
+    @Test
+    void replaysChangesAfterTheLastSeenOne() {
+        fanOut.publish(change("1"));
+        fanOut.publish(change("2"));
+        fanOut.publish(change("3"));
+
+        List<String> replayed = new ArrayList<>();
+        assertThat(fanOut.join("a", "1", missed -> missed.forEach(c -> replayed.add(c.id())))).isTrue();
+
+        assertThat(replayed).containsExactly("2", "3");
+        assertThat(fanOut.publish(change("4"))).containsExactly("a");
+    }
+
+    @Test
+    void doesNotJoinClientsBehindTheRecentChanges() {
+        fanOut.publish(change("1"));
+        fanOut.publish(change("2"));
+        fanOut.publish(change("3"));
+        fanOut.publish(change("4"));
+
+        assertThat(fanOut.join("a", "1", missed -> {
+            throw new AssertionError("nothing to replay");
+        })).isFalse();
+        assertThat(fanOut.size()).isZero();
+    }
+
+    @Test
+    void resetForgetsChangesAndClients() {
+        fanOut.join("a", null, missed -> {
+        });
+        fanOut.publish(change("1"));
+
+        assertThat(fanOut.reset()).containsExactly("a");
+        assertThat(fanOut.join("b", "1", missed -> {
+        })).isFalse();
+        assertThat(fanOut.publish(change("2"))).isEmpty();
+    }
+
+    private static OrderChangeFanOut.Change change(String id) {
+        return new OrderChangeFanOut.Change(id, new OrderChangeEvent("update", "order-" + id, null));
+    }
+}
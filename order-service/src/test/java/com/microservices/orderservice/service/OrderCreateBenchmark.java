@@ -0,0 +1,111 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.Order;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Create latency of the old write path, an existsByOrderNumber check on an
+ * unindexed orderNumber followed by a save, against a single insert guarded
+ * by the unique orderNumber index. Both run against MongoDB in a container,
+ * preloaded with {@code existingOrders} orders. Run with
+ * {@code mvn -Pbenchmark test -Djmh.include=OrderCreate} (needs Docker).
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderCreateBenchmark {
+
+    private static final String UNINDEXED = "orders_unindexed";
+    private static final String INDEXED = "orders_indexed";
+
+    @Param({ "10000", "100000" })
+    private int existingOrders;
+
+    private MongoDBContainer mongo;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private final AtomicLong numbers = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongo = new MongoDBContainer("mongo:7.0");
+        mongo.start();
+        client = MongoClients.create(mongo.getConnectionString());
+        mongoTemplate = new MongoTemplate(client, "benchmark");
+
+        mongoTemplate.indexOps(INDEXED).ensureIndex(
+                new Index().on("orderNumber", Sort.Direction.ASC).unique());
+        for (String collection : List.of(UNINDEXED, INDEXED)) {
+            List<Order> batch = new ArrayList<>();
+            for (int i = 0; i < existingOrders; i++) {
+                batch.add(newOrder());
+                if (batch.size() == 1000) {
+                    mongoTemplate.insert(batch, collection);
+                    batch = new ArrayList<>();
+                }
+            }
+            mongoTemplate.insert(batch, collection);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        mongo.stop();
+    }
+
+    @Benchmark
+    public Order checkThenSave() {
+        Order order = newOrder();
+        if (mongoTemplate.exists(Query.query(Criteria.where("orderNumber").is(order.getOrderNumber())),
+                UNINDEXED)) {
+            throw new IllegalStateException("Order number already exists");
+        }
+        return mongoTemplate.save(order, UNINDEXED);
+    }
+
+    @Benchmark
+    public Order uniqueIndexInsert() {
+        return mongoTemplate.insert(newOrder(), INDEXED);
+    }
+
+    private Order newOrder() {
+        Order order = new Order();
+        order.setOrderNumber(OrderNumberGenerator.format(numbers.incrementAndGet()));
+        order.setCustomerId("customer-" + (numbers.get() % 1000));
+        order.setCustomerName("Benchmark Customer");
+        order.setStatus("PENDING");
+        order.setItems(List.of(new Order.OrderItem("product-1", "Product", 1, new BigDecimal("9.99"), null)));
+        OrderPricing.price(order);
+        return order;
+    }
+}
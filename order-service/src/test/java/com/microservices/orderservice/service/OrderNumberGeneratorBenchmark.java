@@ -0,0 +1,49 @@
+package com.microservices.orderservice.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order numbers per second from one generator shared by all cores. The block
+ * generator leases from an in-memory counter, so the result is its ceiling
+ * per node; with Mongo each lease adds one round trip per block. Run with
+ * {@code mvn -Pbenchmark test -Djmh.include=OrderNumberGenerator}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class OrderNumberGeneratorBenchmark {
+
+    @Param({ "snowflake", "block" })
+    private String generator;
+
+    private OrderNumberGenerator orderNumbers;
+
+    @Setup
+    public void setUp() {
+        orderNumbers = "block".equals(generator)
+                ? new BlockOrderNumberGenerator(OrderNumberGeneratorTest.counter(), 1000)
+                : new SnowflakeOrderNumberGenerator(1);
+    }
+
+    @Benchmark
+    public String next() {
+        return orderNumbers.next();
+    }
+}
@@ -0,0 +1,110 @@
+package com.microservices.orderservice.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class OrderNumberGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int NUMBERS_PER_THREAD = 20_000;
+
+    @Test
+    void snowflakeNumbersAreUniqueAcrossThreads() throws Exception {
+        assertUniqueAcrossThreads(new SnowflakeOrderNumberGenerator(1));
+    }
+
+    @Test
+    void blockNumbersAreUniqueAcrossThreads() throws Exception {
+        assertUniqueAcrossThreads(new BlockOrderNumberGenerator(counter(), 1000));
+    }
+
+    @Test
+    void snowflakeNumbersIncrease() {
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(1);
+        String previous = generator.next();
+        for (int i = 0; i < 100_000; i++) {
+            String next = generator.next();
+            assertThat(next).hasSize(previous.length()).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> new BlockOrderNumberGenerator(counter(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BlockOrderNumberGenerator(counter(), -5))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SnowflakeOrderNumberGenerator(1024))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * A MongoTemplate whose order number counter is an AtomicLong, standing in
+     * for the atomic $inc of findAndModify.
+     */
+    static MongoTemplate counter() {
+        AtomicLong value = new AtomicLong();
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class, withSettings().stubOnly());
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Document.class), eq(BlockOrderNumberGenerator.COUNTERS_COLLECTION)))
+                .thenAnswer(invocation -> {
+                    UpdateDefinition update = invocation.getArgument(1);
+                    long increment = update.getUpdateObject().get("$inc", Document.class)
+                            .get("value", Number.class).longValue();
+                    return new Document("_id", "order_number").append("value", value.addAndGet(increment));
+                });
+        return mongoTemplate;
+    }
+
+    private static void assertUniqueAcrossThreads(OrderNumberGenerator generator) throws Exception {
+        Set<String> numbers = ConcurrentHashMap.newKeySet(THREADS * NUMBERS_PER_THREAD);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < NUMBERS_PER_THREAD; i++) {
+                        numbers.add(generator.next());
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+
+            assertThat(numbers).hasSize(THREADS * NUMBERS_PER_THREAD);
+            assertThat(numbers).allMatch(number -> number.startsWith(OrderNumberGenerator.PREFIX));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices orders of increasing size with {@link OrderPricing} and with the
+ * stream pipeline createOrder and updateOrder used before. Run with
+ * {@code mvn -Pbenchmark test -Djmh.include=OrderPricing}; the gc profiler
+ * reports allocation per operation next to the time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderPricingBenchmark {
+
+    @Param({ "1", "10", "100", "1000", "10000" })
+    private int items;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Order.OrderItem> orderItems = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(100_000), 2);
+            orderItems.add(new Order.OrderItem("product-" + i, "Product " + i, 1 + random.nextInt(50), price, null));
+        }
+        order = new Order();
+        order.setItems(orderItems);
+    }
+
+    @Benchmark
+    public BigDecimal orderPricing() {
+        OrderPricing.price(order);
+        return order.getTotalAmount();
+    }
+
+    @Benchmark
+    public BigDecimal streamPipeline() {
+        BigDecimal total = order.getItems().stream()
+                .map(item -> {
+                    BigDecimal subtotal = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+                    item.setSubtotal(subtotal);
+                    return subtotal;
+                })
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        order.setTotalAmount(total);
+        return total;
+    }
+}
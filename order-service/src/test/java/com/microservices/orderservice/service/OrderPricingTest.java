@@ -0,0 +1,127 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderPricingTest {
+
+    private final Random random = new Random(20240101L);
+
+    @Test
+    void matchesBigDecimalPricingForRandomOrders() {
+        for (int run = 0; run < 20_000; run++) {
+            assertPricedLikeBigDecimal(randomItems(1 + random.nextInt(50)));
+        }
+    }
+
+    @Test
+    void matchesBigDecimalPricingForNegativeAndLargeScales() {
+        assertPricedLikeBigDecimal(List.of(
+                item(new BigDecimal("1E+3"), 2),
+                item(new BigDecimal("0.0000000001"), 7),
+                item(new BigDecimal("-12.50"), 3)));
+        assertPricedLikeBigDecimal(List.of(
+                item(new BigDecimal("5E-18"), 1),
+                item(new BigDecimal("9E+1"), 4)));
+        // A scale difference beyond the power of ten table has to fall back
+        assertPricedLikeBigDecimal(List.of(
+                item(new BigDecimal("1E+5"), 1),
+                item(new BigDecimal("1E-20"), 1)));
+    }
+
+    @Test
+    void fallsBackToBigDecimalOnOverflow() {
+        // Unscaled value wider than a long
+        assertPricedLikeBigDecimal(List.of(item(new BigDecimal("123456789012345678901234.5"), 3)));
+        // Product overflows
+        assertPricedLikeBigDecimal(List.of(item(BigDecimal.valueOf(Long.MAX_VALUE / 2, 2), Integer.MAX_VALUE)));
+        // Each subtotal fits, their sum does not
+        assertPricedLikeBigDecimal(List.of(
+                item(BigDecimal.valueOf(Long.MAX_VALUE - 1, 0), 1),
+                item(BigDecimal.valueOf(Long.MAX_VALUE - 1, 0), 1)));
+        // Rescaling to the common scale overflows
+        assertPricedLikeBigDecimal(List.of(
+                item(BigDecimal.valueOf(Long.MAX_VALUE / 10, 0), 1),
+                item(new BigDecimal("0.01"), 1)));
+        assertPricedLikeBigDecimal(List.of(item(BigDecimal.valueOf(Long.MIN_VALUE, 4), -1)));
+    }
+
+    @Test
+    void rejectsItemsWithoutPriceOrQuantity() {
+        Order order = new Order();
+        order.setItems(List.of(new Order.OrderItem("p", "Product", null, BigDecimal.ONE, null)));
+
+        assertThatThrownBy(() -> OrderPricing.price(order)).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void leavesOrdersWithoutItemsUnchanged() {
+        Order order = new Order();
+        order.setItems(List.of());
+        order.setTotalAmount(BigDecimal.TEN);
+
+        OrderPricing.price(order);
+
+        assertThat(order.getTotalAmount()).isEqualTo(BigDecimal.TEN);
+    }
+
+    /**
+     * Compares with the pipeline OrderPricing replaced, including the scale:
+     * BigDecimal.equals distinguishes 1.0 from 1.00.
+     */
+    private static void assertPricedLikeBigDecimal(List<Order.OrderItem> items) {
+        List<BigDecimal> expectedSubtotals = new ArrayList<>();
+        BigDecimal expectedTotal = BigDecimal.ZERO;
+        for (Order.OrderItem item : items) {
+            BigDecimal subtotal = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            expectedSubtotals.add(subtotal);
+            expectedTotal = expectedTotal.add(subtotal);
+        }
+
+        Order order = new Order();
+        order.setItems(items);
+        OrderPricing.price(order);
+
+        assertThat(items).extracting(Order.OrderItem::getSubtotal).containsExactlyElementsOf(expectedSubtotals);
+        assertThat(order.getTotalAmount()).isEqualTo(expectedTotal);
+    }
+
+    private List<Order.OrderItem> randomItems(int count) {
+        List<Order.OrderItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(item(randomPrice(), randomQuantity()));
+        }
+        return items;
+    }
+
+    private BigDecimal randomPrice() {
+        int scale = random.nextInt(10) == 0 ? random.nextInt(41) - 20 : random.nextInt(5);
+        BigInteger unscaled = switch (random.nextInt(10)) {
+            case 0 -> new BigInteger(64 + random.nextInt(40), random);
+            case 1 -> BigInteger.valueOf(random.nextLong());
+            default -> BigInteger.valueOf(random.nextInt(1_000_000));
+        };
+        return new BigDecimal(random.nextInt(20) == 0 ? unscaled.negate() : unscaled, scale);
+    }
+
+    private int randomQuantity() {
+        return switch (random.nextInt(10)) {
+            case 0 -> random.nextInt();
+            case 1 -> Integer.MAX_VALUE;
+            default -> 1 + random.nextInt(100);
+        };
+    }
+
+    private static Order.OrderItem item(BigDecimal price, int quantity) {
+        return new Order.OrderItem("product", "Product", quantity, price, null);
+    }
+}
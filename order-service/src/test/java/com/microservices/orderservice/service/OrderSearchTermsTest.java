@@ -0,0 +1,48 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderSearchTermsTest {
+
+    @Test
+    void indexesNormalizedWordsOfNameEmailAndProducts() {
+        Order order = new Order();
+        order.setCustomerName("  José O'Brien ");
+        order.setCustomerEmail("Jose.OBrien@Example.com");
+        order.setItems(List.of(
+                new Order.OrderItem("p1", "Wireless Mouse", 1, null, null),
+                new Order.OrderItem("p2", "USB-C Cable", 1, null, null)));
+
+        assertThat(OrderSearchTerms.terms(order)).containsExactly(
+                "jose", "o", "brien", "jose.obrien@example.com", "obrien", "example", "com",
+                "wireless", "mouse", "usb", "c", "cable");
+    }
+
+    @Test
+    void emptyOrderHasNoTerms() {
+        assertThat(OrderSearchTerms.terms(new Order())).isEmpty();
+    }
+
+    @Test
+    void splitsQueryIntoNormalizedPrefixes() {
+        assertThat(OrderSearchTerms.prefixes(" Jö  Smith, jose.o@ex "))
+                .containsExactly("jo", "smith", "jose.o@ex");
+        assertThat(OrderSearchTerms.prefixes("-- ,")).isEmpty();
+    }
+
+    @Test
+    void prefixRegexIsAnchoredAndEscaped() {
+        String regex = OrderSearchTerms.prefixRegex("a.b+(c");
+
+        assertThat(regex).startsWith("^");
+        assertThat(Pattern.compile(regex).matcher("a.b+(cd").find()).isTrue();
+        assertThat(Pattern.compile(regex).matcher("axb+(cd").find()).isFalse();
+        assertThat(Pattern.compile(regex).matcher("xa.b+(c").find()).isFalse();
+    }
+}
@@ -0,0 +1,163 @@
+package com.microservices.orderservice.service;
+
+import com.microservices.orderservice.model.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Creates orders concurrently against a real MongoDB, so that uniqueness
+ * comes from the orderNumber index and collisions surface as
+ * DuplicateKeyException on insert.
+ */
+@SpringBootTest(properties = "order.numbers.generator=colliding")
+@Testcontainers
+class OrderServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final String COLLIDING_NUMBER = OrderNumberGenerator.format(0);
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CollidingOrderNumberGenerator orderNumberGenerator;
+
+    @BeforeEach
+    void clearOrders() {
+        mongoTemplate.remove(new Query(), Order.class);
+        orderNumberGenerator.reset();
+    }
+
+    @Test
+    void generatedNumberCollisionsAreRetriedWithoutDuplicates() throws Exception {
+        int rounds = 20;
+        for (int round = 0; round < rounds; round++) {
+            orderNumberGenerator.reset();
+            // Every thread's first number is the same, so all but at most one insert collide and retry
+            List<Order> created = runConcurrently(() -> orderService.createOrder(newOrder(null)));
+            assertThat(created).hasSize(THREADS);
+        }
+
+        List<Order> stored = mongoTemplate.findAll(Order.class);
+        assertThat(stored).hasSize(rounds * THREADS);
+        assertThat(stored).extracting(Order::getOrderNumber).doesNotHaveDuplicates();
+        assertThat(stored).extracting(Order::getOrderNumber).containsOnlyOnce(COLLIDING_NUMBER);
+    }
+
+    @Test
+    void clientSuppliedNumberIsStoredOnce() throws Exception {
+        List<Future<Order>> attempts = submitConcurrently(() -> orderService.createOrder(newOrder("ORD-CLIENT-1")));
+
+        int succeeded = 0;
+        for (Future<Order> attempt : attempts) {
+            try {
+                attempt.get(30, TimeUnit.SECONDS);
+                succeeded++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(RuntimeException.class)
+                        .hasMessageContaining("Order number already exists");
+            }
+        }
+
+        assertThat(succeeded).isEqualTo(1);
+        assertThat(mongoTemplate.count(Query.query(Criteria.where("orderNumber").is("ORD-CLIENT-1")), Order.class))
+                .isEqualTo(1);
+    }
+
+    private static List<Order> runConcurrently(Callable<Order> task) throws Exception {
+        List<Order> results = new ArrayList<>();
+        for (Future<Order> future : submitConcurrently(task)) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private static List<Future<Order>> submitConcurrently(Callable<Order> task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Order>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(60, TimeUnit.SECONDS);
+        return futures;
+    }
+
+    private static Order newOrder(String orderNumber) {
+        Order order = new Order();
+        order.setOrderNumber(orderNumber);
+        order.setCustomerId("customer-1");
+        order.setCustomerName("Test Customer");
+        order.setItems(List.of(new Order.OrderItem("product-1", "Product", 2, new BigDecimal("9.99"), null)));
+        return order;
+    }
+
+    /**
+     * Hands the same number to each thread's first call since the last reset
+     * and unique numbers to its retries, so every concurrent round forces
+     * collisions that a single retry resolves.
+     */
+    static class CollidingOrderNumberGenerator implements OrderNumberGenerator {
+
+        private final Set<Thread> collided = ConcurrentHashMap.newKeySet();
+        private final AtomicLong unique = new AtomicLong(1_000_000);
+
+        void reset() {
+            collided.clear();
+        }
+
+        @Override
+        public String next() {
+            return collided.add(Thread.currentThread()) ? COLLIDING_NUMBER
+                    : OrderNumberGenerator.format(unique.getAndIncrement());
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        CollidingOrderNumberGenerator collidingOrderNumberGenerator() {
+            return new CollidingOrderNumberGenerator();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.microservices.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservices.userservice.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of users. Users are stored once, keyed by id, and are
+ * only ever loaded through the id cache, so an invalidation waits for a
+ * running load instead of being overwritten by it. Usernames and emails map
+ * to ids, and an index entry only counts as a hit if the cached user still
+ * carries that username or email. Writes invalidate the affected keys on this
+ * instance only, so other instances may serve a changed user until the TTL
+ * expires.
+ */
+@Component
+@Slf4j
+public class UserCache {
+
+    private final boolean enabled;
+    private final Cache<String, User> usersById;
+    private final Cache<String, String> idsByUsername;
+    private final Cache<String, String> idsByEmail;
+
+    public UserCache(MeterRegistry meterRegistry,
+            @Value("${user.cache.enabled:true}") boolean enabled,
+            @Value("${user.cache.max-size:10000}") long maxSize,
+            @Value("${user.cache.ttl:10m}") Duration ttl) {
+        this.enabled = enabled;
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idsByUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idsByEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByUsername, "users.by-username");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByEmail, "users.by-email");
+        log.info("User cache enabled: {}, max size: {}, ttl: {}", enabled, maxSize, ttl);
+    }
+
+    public Optional<User> getById(String id, Function<String, Optional<User>> idLoader) {
+        if (!enabled) {
+            return idLoader.apply(id);
+        }
+        return Optional.ofNullable(load(id, idLoader));
+    }
+
+    /**
+     * @param loader   finds the user by username in the database
+     * @param idLoader finds a user by id in the database
+     */
+    public Optional<User> getByUsername(String username, Supplier<Optional<User>> loader,
+            Function<String, Optional<User>> idLoader) {
+        return getByKey(idsByUsername, username, User::getUsername, loader, idLoader);
+    }
+
+    /**
+     * @param loader   finds the user by email in the database
+     * @param idLoader finds a user by id in the database
+     */
+    public Optional<User> getByEmail(String email, Supplier<Optional<User>> loader,
+            Function<String, Optional<User>> idLoader) {
+        return getByKey(idsByEmail, email, User::getEmail, loader, idLoader);
+    }
+
+    /**
+     * Drops every entry of the user as it was before a write, and of the
+     * username and email it is being changed to.
+     */
+    public void invalidate(User previous, User current) {
+        if (!enabled) {
+            return;
+        }
+        for (User user : new User[] { previous, current }) {
+            if (user == null) {
+                continue;
+            }
+            if (user.getId() != null) {
+                usersById.invalidate(user.getId());
+            }
+            if (user.getUsername() != null) {
+                idsByUsername.invalidate(user.getUsername());
+            }
+            if (user.getEmail() != null) {
+                idsByEmail.invalidate(user.getEmail());
+            }
+        }
+    }
+
+    private Optional<User> getByKey(Cache<String, String> index, String key, Function<User, String> keyOf,
+            Supplier<Optional<User>> loader, Function<String, Optional<User>> idLoader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        String id = index.getIfPresent(key);
+        if (id != null) {
+            User cached = load(id, idLoader);
+            if (cached != null && key.equals(keyOf.apply(cached))) {
+                return Optional.of(cached);
+            }
+            index.invalidate(key);
+        }
+
+        // The key lookup only resolves the id; the user itself is cached by a load through the id cache
+        Optional<User> found = loader.get();
+        if (found.isEmpty()) {
+            return found;
+        }
+        User user = load(found.get().getId(), idLoader);
+        if (user == null || !key.equals(keyOf.apply(user))) {
+            // Changed between the two reads, so the key is not indexed
+            return found;
+        }
+        index.put(key, user.getId());
+        return Optional.of(user);
+    }
+
+    // Loads of the same id are coalesced, and an invalidation waits for a running load
+    private User load(String id, Function<String, Optional<User>> idLoader) {
+        return usersById.get(id, key -> idLoader.apply(key).orElse(null));
+    }
+}
@@ -1,6 +1,8 @@
 package com.microservices.userservice.controller;
 
 import com.microservices.userservice.model.User;
+import com.microservices.userservice.model.UserBatchRequest;
+import com.microservices.userservice.model.UserBatchResult;
 import com.microservices.userservice.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -45,6 +47,27 @@ public class UserController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/email/{email}")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
+        log.info("GET /api/users/email/{} - Fetching user by email", email);
+        return userService.getUserByEmail(email)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('user', 'admin')")
+    public ResponseEntity<UserBatchResult> getUsersBatch(@RequestBody UserBatchRequest request) {
+        log.info("POST /api/users/batch - Fetching users in batch");
+        try {
+            return ResponseEntity.ok(userService.getUsersBatch(request));
+        } catch (RuntimeException e) {
+            log.error("Error fetching users in batch: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('admin')")
     public ResponseEntity<User> createUser(@Valid @RequestBody User user) {
@@ -0,0 +1,20 @@
+package com.microservices.userservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchRequest {
+
+    private List<String> ids;
+
+    private List<String> usernames;
+
+    // User fields to return; all fields when empty
+    private List<String> fields;
+}
@@ -0,0 +1,19 @@
+package com.microservices.userservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchResult {
+
+    // Requested fields of each found user, keyed by the id it was requested by
+    private Map<String, Map<String, Object>> byId;
+
+    // Requested fields of each found user, keyed by the username it was requested by
+    private Map<String, Map<String, Object>> byUsername;
+}
@@ -1,21 +1,44 @@
 package com.microservices.userservice.service;
 
+import com.microservices.userservice.cache.UserCache;
 import com.microservices.userservice.model.User;
+import com.microservices.userservice.model.UserBatchRequest;
+import com.microservices.userservice.model.UserBatchResult;
 import com.microservices.userservice.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserService {
 
+    private static final List<String> USER_FIELDS = List.of("id", "username", "email", "firstName", "lastName",
+            "phone", "address", "active", "createdAt", "updatedAt");
+
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${user.batch.max-size:500}")
+    private int maxBatchSize;
 
     public List<User> getAllUsers() {
         log.info("Fetching all users");
@@ -24,12 +47,89 @@ public class UserService {
 
     public Optional<User> getUserById(String id) {
         log.info("Fetching user by id: {}", id);
-        return userRepository.findById(id);
+        return userCache.getById(id, userRepository::findById);
     }
 
     public Optional<User> getUserByUsername(String username) {
         log.info("Fetching user by username: {}", username);
-        return userRepository.findByUsername(username);
+        return userCache.getByUsername(username, () -> userRepository.findByUsername(username),
+                userRepository::findById);
+    }
+
+    public Optional<User> getUserByEmail(String email) {
+        log.info("Fetching user by email: {}", email);
+        return userCache.getByEmail(email, () -> userRepository.findByEmail(email), userRepository::findById);
+    }
+
+    /**
+     * Resolves users by id and username with a single query. Users are returned
+     * in separate maps keyed by the id or username they were requested by, with
+     * only the requested fields; unknown keys are left out.
+     */
+    public UserBatchResult getUsersBatch(UserBatchRequest request) {
+        Set<String> ids = batchKeys(request.getIds(), "id");
+        Set<String> usernames = batchKeys(request.getUsernames(), "username");
+        List<String> fields = request.getFields() == null || request.getFields().isEmpty()
+                ? USER_FIELDS : List.copyOf(new LinkedHashSet<>(request.getFields()));
+        log.info("Fetching batch of {} ids and {} usernames", ids.size(), usernames.size());
+
+        if (ids.isEmpty() && usernames.isEmpty()) {
+            throw new RuntimeException("At least one id or username is required");
+        }
+        if (ids.size() + usernames.size() > maxBatchSize) {
+            throw new RuntimeException("Batch is limited to " + maxBatchSize + " users");
+        }
+        for (String field : fields) {
+            if (!USER_FIELDS.contains(field)) {
+                throw new RuntimeException("Unknown user field: " + field);
+            }
+        }
+
+        List<Criteria> keys = new ArrayList<>();
+        if (!ids.isEmpty()) {
+            keys.add(Criteria.where("id").in(ids));
+        }
+        if (!usernames.isEmpty()) {
+            keys.add(Criteria.where("username").in(usernames));
+        }
+        Query query = Query.query(keys.size() == 1 ? keys.get(0) : new Criteria().orOperator(keys));
+        // id and username are always loaded to key the result
+        query.fields().include("username").include(fields.toArray(String[]::new));
+
+        Map<String, Map<String, Object>> byId = new LinkedHashMap<>();
+        Map<String, Map<String, Object>> byUsername = new LinkedHashMap<>();
+        for (User user : mongoTemplate.find(query, User.class)) {
+            Map<String, Object> projected = project(user, fields);
+            if (ids.contains(user.getId())) {
+                byId.put(user.getId(), projected);
+            }
+            if (usernames.contains(user.getUsername())) {
+                byUsername.put(user.getUsername(), projected);
+            }
+        }
+        return new UserBatchResult(byId, byUsername);
+    }
+
+    private static Set<String> batchKeys(List<String> keys, String name) {
+        Set<String> unique = new LinkedHashSet<>();
+        if (keys != null) {
+            for (String key : keys) {
+                if (key == null || key.isBlank()) {
+                    throw new RuntimeException("Batch " + name + "s must not be null or blank");
+                }
+                unique.add(key);
+            }
+        }
+        return unique;
+    }
+
+    private static Map<String, Object> project(User user, List<String> fields) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(user);
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (String field : fields) {
+            projected.put(field, wrapper.getPropertyValue(field));
+        }
+        return projected;
     }
 
     public User createUser(User user) {
@@ -66,6 +166,9 @@ public class UserService {
             throw new RuntimeException("Email already exists: " + userDetails.getEmail());
         }
 
+        User previous = new User();
+        BeanUtils.copyProperties(user, previous);
+
         user.setUsername(userDetails.getUsername());
         user.setEmail(userDetails.getEmail());
         user.setFirstName(userDetails.getFirstName());
@@ -75,7 +178,11 @@ public class UserService {
         user.setActive(userDetails.isActive());
         user.setUpdatedAt(LocalDateTime.now());
 
-        return userRepository.save(user);
+        // Invalidated on both sides of the write so no reader keeps the old user past it
+        userCache.invalidate(previous, user);
+        User savedUser = userRepository.save(user);
+        userCache.invalidate(previous, savedUser);
+        return savedUser;
     }
 
     public void deleteUser(String id) {
@@ -84,6 +191,8 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
 
+        userCache.invalidate(user, null);
         userRepository.delete(user);
+        userCache.invalidate(user, null);
     }
 }
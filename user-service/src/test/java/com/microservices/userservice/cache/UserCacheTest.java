@@ -0,0 +1,94 @@
+package com.microservices.userservice.cache;
+
+import com.microservices.userservice.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCacheTest {
+
+    private final Map<String, User> database = new ConcurrentHashMap<>();
+    private final UserCache cache = new UserCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(10));
+
+    @Test
+    void lookupRacingAnUpdateDoesNotCacheTheOldUser() throws Exception {
+        User old = user("1", "john", "john@example.com");
+        database.put(old.getId(), old);
+
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+        CompletableFuture<Optional<User>> lookup = CompletableFuture.supplyAsync(() ->
+                cache.getByUsername("john", () -> {
+                    Optional<User> found = findByUsername("john");
+                    read.countDown();
+                    await(updated);
+                    return found;
+                }, this::findById));
+
+        assertThat(read.await(5, TimeUnit.SECONDS)).isTrue();
+        User renamed = user("1", "johnny", "john@example.com");
+        cache.invalidate(old, renamed);
+        database.put(renamed.getId(), renamed);
+        cache.invalidate(old, renamed);
+        updated.countDown();
+        lookup.get(5, TimeUnit.SECONDS);
+
+        assertThat(cache.getById("1", this::findById)).contains(renamed);
+        assertThat(cache.getByUsername("john", () -> findByUsername("john"), this::findById)).isEmpty();
+        assertThat(cache.getByEmail("john@example.com", () -> findByEmail("john@example.com"), this::findById))
+                .contains(renamed);
+    }
+
+    @Test
+    void invalidateDropsOldAndNewKeys() {
+        User old = user("1", "john", "john@example.com");
+        database.put(old.getId(), old);
+        assertThat(cache.getByEmail("john@example.com", () -> findByEmail("john@example.com"), this::findById))
+                .contains(old);
+
+        User changed = user("1", "john", "johnny@example.com");
+        database.put(changed.getId(), changed);
+        cache.invalidate(old, changed);
+
+        assertThat(cache.getByEmail("john@example.com", () -> findByEmail("john@example.com"), this::findById))
+                .isEmpty();
+        assertThat(cache.getByUsername("john", () -> findByUsername("john"), this::findById)).contains(changed);
+    }
+
+    private Optional<User> findById(String id) {
+        return Optional.ofNullable(database.get(id));
+    }
+
+    private Optional<User> findByUsername(String username) {
+        return database.values().stream().filter(user -> user.getUsername().equals(username)).findFirst();
+    }
+
+    private Optional<User> findByEmail(String email) {
+        return database.values().stream().filter(user -> user.getEmail().equals(email)).findFirst();
+    }
+
+    private static User user(String id, String username, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(email);
+        return user;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}